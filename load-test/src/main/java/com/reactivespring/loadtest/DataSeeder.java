@@ -0,0 +1,93 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/*
+ * Loads the data the endpoints read, through the services' own NDJSON bulk endpoints so that seeding
+ * a few hundred thousand documents takes seconds. Generated from the seed, so every run with the same
+ * options reads the same data: movie i has movieInfoId "i", a year in YEARS and two members of CAST.
+ */
+final class DataSeeder {
+
+    static final int FIRST_YEAR = 1950;
+    static final int YEARS = 75;
+    static final List<String> CAST = List.of("Christian Bale", "Michael Cane", "Heath Ledger", "Tom Hardy",
+            "Anne Hathaway", "Gary Oldman", "Morgan Freeman", "Cillian Murphy", "Marion Cotillard", "Joseph Gordon-Levitt");
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final long seed;
+
+    DataSeeder(HttpClient client, long seed) {
+        this.client = client.headers(headers -> headers.set("Content-Type", "application/x-ndjson"));
+        this.seed = seed;
+    }
+
+    void seedMovieInfos(String baseUrl, int movies) {
+        var random = new SplittableRandom(seed);
+        var lines = Flux.range(1, movies).map(id -> {
+            var year = FIRST_YEAR + random.nextInt(YEARS);
+            var movieInfo = new LinkedHashMap<String, Object>();
+            movieInfo.put("movieInfoId", String.valueOf(id));
+            movieInfo.put("name", "Movie " + id);
+            movieInfo.put("year", year);
+            movieInfo.put("cast", List.of(CAST.get(random.nextInt(CAST.size())), CAST.get(random.nextInt(CAST.size()))));
+            movieInfo.put("release_date", LocalDate.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28)).toString());
+            return ndjson(movieInfo);
+        });
+        post(baseUrl + "/v1/movieinfos/catalogue", lines, movies + " movie infos");
+    }
+
+    void seedReviews(String baseUrl, int movies, int reviewsPerMovie) {
+        var random = new SplittableRandom(seed + 1);
+        var lines = Flux.range(1, movies)
+                .concatMap(id -> Flux.range(0, reviewsPerMovie).map(i -> {
+                    var review = new LinkedHashMap<String, Object>();
+                    review.put("movieInfoId", (long) id);
+                    review.put("comment", "Review " + i + " of movie " + id);
+                    review.put("rating", random.nextInt(11) * 1.0);
+                    return ndjson(review);
+                }));
+        post(baseUrl + "/v1/reviews/bulk", lines, (long) movies * reviewsPerMovie + " reviews");
+    }
+
+    private void post(String url, Flux<String> lines, String what) {
+        var start = System.nanoTime();
+        client.post()
+                .uri(url)
+                .send(ByteBufFlux.fromString(lines))
+                .responseSingle((response, content) -> content.asString()
+                        .defaultIfEmpty("")
+                        .map(body -> {
+                            if (response.status().code() / 100 != 2) {
+                                throw new IllegalStateException("seeding " + url + " failed with "
+                                        + response.status() + " : " + body);
+                            }
+                            return body;
+                        }))
+                .block(Duration.ofMinutes(5));
+        log.info("Seeded {} in {} ms", what, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private static String ndjson(Map<String, Object> document) {
+        try {
+            return MAPPER.writeValueAsString(document) + "\n";
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
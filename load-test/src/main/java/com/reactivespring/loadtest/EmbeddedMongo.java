@@ -0,0 +1,59 @@
+package com.reactivespring.loadtest;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.IFeatureAwareVersion;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.distribution.Versions;
+import de.flapdoodle.embed.process.runtime.Network;
+
+import java.io.IOException;
+
+/*
+ * Single node mongod through flapdoodle, the same library the services' integration tests use.
+ * The binaries are downloaded on the first run and extracted to ~/.embedmongo, later runs work offline.
+ * A single node has no change streams, so the review service runs without its RatingSummary listener.
+ */
+final class EmbeddedMongo implements AutoCloseable {
+
+    private final MongodExecutable executable;
+    private final MongodProcess process;
+    private final int port;
+
+    private EmbeddedMongo(MongodExecutable executable, MongodProcess process, int port) {
+        this.executable = executable;
+        this.process = process;
+        this.port = port;
+    }
+
+    static EmbeddedMongo start(String version, int port) throws IOException {
+        var config = MongodConfig.builder()
+                .version(version(version))
+                .net(new Net(port, Network.localhostIsIPv6()))
+                .build();
+        var executable = MongodStarter.getDefaultInstance().prepare(config);
+        return new EmbeddedMongo(executable, executable.start(), port);
+    }
+
+    private static IFeatureAwareVersion version(String version) {
+        for (var known : Version.values()) {
+            if (known.asInDownloadPath().equals(version)) {
+                return known;
+            }
+        }
+        return Versions.withFeatures(de.flapdoodle.embed.process.distribution.Version.of(version));
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        process.stop();
+        executable.stop();
+    }
+}
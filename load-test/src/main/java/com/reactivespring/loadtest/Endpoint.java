@@ -0,0 +1,92 @@
+package com.reactivespring.loadtest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/*
+ * One request shape of the mix. The weight is its share of the arrivals, path and body are drawn
+ * from the run's random with the number of seeded movies, so they only ever ask for data that exists.
+ */
+final class Endpoint {
+
+    private final String name;
+    private final String service;
+    private final String method;
+    private final int weight;
+    private final BiFunction<SplittableRandom, Integer, String> path;
+    private final BiFunction<SplittableRandom, Integer, String> body;
+
+    private Endpoint(String name, String service, String method, int weight,
+                     BiFunction<SplittableRandom, Integer, String> path,
+                     BiFunction<SplittableRandom, Integer, String> body) {
+        this.name = name;
+        this.service = service;
+        this.method = method;
+        this.weight = weight;
+        this.path = path;
+        this.body = body;
+    }
+
+    static Endpoint get(String name, String service, int weight, BiFunction<SplittableRandom, Integer, String> path) {
+        return new Endpoint(name, service, "GET", weight, path, null);
+    }
+
+    static Endpoint post(String name, String service, int weight, BiFunction<SplittableRandom, Integer, String> path,
+                         BiFunction<SplittableRandom, Integer, String> body) {
+        return new Endpoint(name, service, "POST", weight, path, body);
+    }
+
+    /*
+     * The default mix, reads dominate as they do in front of a catalogue.
+     */
+    static List<Endpoint> mix(Set<String> services) {
+        var all = List.of(
+                get("info.byId", "info", 4, (random, movies) -> "/v1/movieinfos/" + (1 + random.nextInt(movies))),
+                get("info.page", "info", 2, (random, movies) -> "/v1/movieinfos/page?size=50"),
+                get("info.searchByYear", "info", 2, (random, movies) -> {
+                    var from = DataSeeder.FIRST_YEAR + random.nextInt(DataSeeder.YEARS);
+                    return "/v1/movieinfos/search?yearFrom=" + from + "&yearTo=" + (from + 2) + "&limit=50";
+                }),
+                get("info.searchByCast", "info", 1, (random, movies) ->
+                        "/v1/movieinfos/search?cast=" + DataSeeder.CAST.get(random.nextInt(DataSeeder.CAST.size()))
+                                .replace(" ", "%20") + "&limit=50"),
+                get("reviews.byMovie", "reviews", 4, (random, movies) ->
+                        "/v1/reviews?movieInfoId=" + (1 + random.nextInt(movies))),
+                get("reviews.page", "reviews", 1, (random, movies) ->
+                        "/v1/reviews/page?movieInfoId=" + (1 + random.nextInt(movies)) + "&size=20"),
+                post("reviews.add", "reviews", 1, (random, movies) -> "/v1/reviews", (random, movies) ->
+                        "{\"movieInfoId\":" + (1 + random.nextInt(movies))
+                                + ",\"comment\":\"load test\",\"rating\":" + random.nextInt(11) + ".0}"),
+                get("movies.byId", "movies", 4, (random, movies) -> "/v1/movies/" + (1 + random.nextInt(movies))));
+        return all.stream()
+                .filter(endpoint -> services.contains(endpoint.service))
+                .collect(Collectors.toList());
+    }
+
+    String name() {
+        return name;
+    }
+
+    String service() {
+        return service;
+    }
+
+    String method() {
+        return method;
+    }
+
+    int weight() {
+        return weight;
+    }
+
+    String path(SplittableRandom random, int movies) {
+        return path.apply(random, movies);
+    }
+
+    String body(SplittableRandom random, int movies) {
+        return body == null ? null : body.apply(random, movies);
+    }
+}
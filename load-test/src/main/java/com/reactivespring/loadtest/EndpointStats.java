@@ -0,0 +1,110 @@
+package com.reactivespring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Outcome of the measured arrivals of one endpoint. Latency is recorded for every arrival that got a
+ * response or timed out, from its intended start time, so the queueing of a saturated service shows up in the
+ * percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+final class EndpointStats {
+
+    private final String name;
+    private final ConcurrentHistogram latency;
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String name, Duration highestTrackable) {
+        this.name = name;
+        this.latency = new ConcurrentHistogram(TimeUnit.MICROSECONDS.toNanos(1), highestTrackable.toNanos(), 3);
+    }
+
+    void arrival() {
+        arrivals.increment();
+    }
+
+    void response(int status, long latencyNanos) {
+        latency.recordValue(Math.min(latencyNanos, latency.getHighestTrackableValue()));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            successes.increment();
+        }
+    }
+
+    /*
+     * A timed out request is as slow as we know it to be, leaving it out would flatter the tail.
+     */
+    void timeout(long latencyNanos) {
+        latency.recordValue(Math.min(latencyNanos, latency.getHighestTrackableValue()));
+        timeouts.increment();
+    }
+
+    void failure() {
+        failures.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long arrivals() {
+        return arrivals.sum();
+    }
+
+    /*
+     * Everything but a 2xx/3xx counts against the endpoint, including arrivals that never got sent.
+     */
+    double errorRate() {
+        var arrivals = arrivals();
+        return arrivals == 0 ? 0 : (double) (arrivals - successes.sum()) / arrivals;
+    }
+
+    long p99Nanos() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    Map<String, Object> report(Duration measured) {
+        var report = new LinkedHashMap<String, Object>();
+        report.put("endpoint", name);
+        report.put("arrivals", arrivals());
+        report.put("throughput", successes.sum() / (measured.toNanos() / 1e9));
+        report.put("errorRate", errorRate());
+        report.put("clientErrors", clientErrors.sum());
+        report.put("serverErrors", serverErrors.sum());
+        report.put("timeouts", timeouts.sum());
+        report.put("failures", failures.sum());
+        report.put("dropped", dropped.sum());
+
+        var latencyMs = new LinkedHashMap<String, Object>();
+        latencyMs.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMs.put("p90", millis(latency.getValueAtPercentile(90)));
+        latencyMs.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMs.put("p999", millis(latency.getValueAtPercentile(99.9)));
+        latencyMs.put("max", millis(latency.getMaxValue()));
+        latencyMs.put("mean", millis((long) latency.getMean()));
+        report.put("latencyMs", latencyMs);
+        return report;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
@@ -0,0 +1,83 @@
+package com.reactivespring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The JSON report of a run and its gates. A gate is checked for every endpoint on its own: a fast mix
+ * must not hide one slow endpoint.
+ */
+final class LoadReport {
+
+    private final LoadTestConfig config;
+    private final Map<String, EndpointStats> stats;
+
+    LoadReport(LoadTestConfig config, Map<String, EndpointStats> stats) {
+        this.config = config;
+        this.stats = stats;
+    }
+
+    List<String> gateViolations() {
+        var violations = new ArrayList<String>();
+        var p99Gate = config.p99Gate();
+        var errorRateGate = config.errorRateGate();
+        for (var endpoint : stats.values()) {
+            if (p99Gate != null && endpoint.p99Nanos() > p99Gate.toNanos()) {
+                violations.add(endpoint.name() + " p99 " + Duration.ofNanos(endpoint.p99Nanos()).toMillis()
+                        + "ms > " + p99Gate.toMillis() + "ms");
+            }
+            if (errorRateGate != null && endpoint.errorRate() > errorRateGate) {
+                violations.add(endpoint.name() + " error rate " + endpoint.errorRate() + " > " + errorRateGate);
+            }
+        }
+        return violations;
+    }
+
+    Map<String, Object> toMap() {
+        var run = new LinkedHashMap<String, Object>();
+        run.put("timestamp", Instant.now().toString());
+        run.put("services", config.services());
+        run.put("rate", config.rate());
+        run.put("arrivals", config.poissonArrivals() ? "poisson" : "constant");
+        run.put("warmupSeconds", config.warmup().toSeconds());
+        run.put("durationSeconds", config.duration().toSeconds());
+        run.put("maxInFlight", config.maxInFlight());
+        run.put("seed", config.seed());
+        run.put("movies", config.movies());
+        run.put("reviewsPerMovie", config.reviewsPerMovie());
+        run.put("stubLatencyMs", config.stubLatency().toMillis());
+
+        var endpoints = new ArrayList<Map<String, Object>>();
+        stats.values().forEach(endpoint -> endpoints.add(endpoint.report(config.duration())));
+
+        var gates = new LinkedHashMap<String, Object>();
+        gates.put("p99Ms", config.p99Gate() == null ? null : config.p99Gate().toMillis());
+        gates.put("errorRate", config.errorRateGate());
+        gates.put("violations", gateViolations());
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("run", run);
+        report.put("endpoints", endpoints);
+        report.put("gates", gates);
+        return report;
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), toMap());
+    }
+}
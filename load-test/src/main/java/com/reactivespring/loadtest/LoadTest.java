@@ -0,0 +1,141 @@
+package com.reactivespring.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * End-to-end load test: starts Mongo, the stub upstreams and the selected services, seeds the data,
+ * runs the open model load and writes the report. Exits with 1 when a gate is violated so that CI can
+ * keep regressions out of master, and with 2 when the run itself could not be set up.
+ *
+ * movies-service is loaded against the WireMock stubs rather than the two real services: a fixed upstream
+ * latency keeps its numbers about its own aggregation, while GET /v1/movieinfos/{id} on the real
+ * movies-info-service is measured by info.byId. The reviews batching client is switched off, the stubs
+ * only answer single-movie lookups.
+ */
+public class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) {
+        var config = LoadTestConfig.parse(args);
+        var resources = new ArrayDeque<AutoCloseable>();
+        // the services are separate processes, they must not outlive an interrupted run
+        var shutdownHook = new Thread(() -> closeAll(resources));
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        int exitCode;
+        try {
+            exitCode = run(config, resources);
+        } catch (Exception e) {
+            log.error("Load test could not run", e);
+            exitCode = 2;
+        } finally {
+            closeAll(resources);
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestConfig config, Deque<AutoCloseable> resources) throws Exception {
+        var services = config.services();
+        var client = HttpClient.create(ConnectionProvider.builder("load-test")
+                .maxConnections(config.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build());
+        var seeder = new DataSeeder(client, config.seed());
+        var baseUrls = new LinkedHashMap<String, String>();
+
+        var mongo = services.contains("info") || services.contains("reviews") ? mongo(config, resources) : null;
+        // a database of its own per run, a reused mongod would otherwise collect the reviews of every run
+        var database = "loadtest_" + System.currentTimeMillis();
+
+        if (services.contains("info")) {
+            var info = start(config, resources, client, "movies-info-service", config.jar("info"),
+                    mongoProperties(mongo, database + "_info"));
+            seeder.seedMovieInfos(info.baseUrl(), config.movies());
+            baseUrls.put("info", info.baseUrl());
+        }
+        if (services.contains("reviews")) {
+            var reviews = start(config, resources, client, "movies-review-service", config.jar("reviews"),
+                    mongoProperties(mongo, database + "_reviews"));
+            seeder.seedReviews(reviews.baseUrl(), config.movies(), config.reviewsPerMovie());
+            baseUrls.put("reviews", reviews.baseUrl());
+        }
+        if (services.contains("movies")) {
+            var stubs = StubUpstreams.start(ServiceProcess.freePort(), config.stubLatency());
+            resources.push(stubs);
+            var stubUrl = "http://localhost:" + stubs.port();
+            var movies = start(config, resources, client, "movies-service", config.jar("movies"), List.of(
+                    "--restClient.moviesInfoUrl=" + stubUrl + "/v1/movieinfos",
+                    "--restClient.reviewsUrl=" + stubUrl + "/v1/reviews",
+                    "--restClient.reviewsBatch.enabled=false",
+                    // the WireMock stubs only speak HTTP/1.1 in cleartext
+                    "--restClient.http2.enabled=false"));
+            baseUrls.put("movies", movies.baseUrl());
+        }
+
+        Map<String, EndpointStats> stats = new OpenModelLoadGenerator(client, Endpoint.mix(services), baseUrls, config).run();
+        var report = new LoadReport(config, stats);
+        report.write(config.report());
+        stats.values().forEach(endpoint -> log.info("{}", endpoint.report(config.duration())));
+        log.info("Report written to {}", config.report().toAbsolutePath());
+
+        var violations = report.gateViolations();
+        violations.forEach(violation -> log.error("Gate violated : {}", violation));
+        return violations.isEmpty() ? 0 : 1;
+    }
+
+    private static String mongo(LoadTestConfig config, Deque<AutoCloseable> resources) throws Exception {
+        if (config.mongo() != null) {
+            return config.mongo();
+        }
+        var mongo = EmbeddedMongo.start(config.mongoVersion(), ServiceProcess.freePort());
+        resources.push(mongo);
+        return "localhost:" + mongo.port();
+    }
+
+    private static List<String> mongoProperties(String mongo, String database) {
+        var separator = mongo.lastIndexOf(':');
+        return List.of(
+                "--spring.data.mongodb.host=" + mongo.substring(0, separator),
+                "--spring.data.mongodb.port=" + mongo.substring(separator + 1),
+                "--spring.data.mongodb.database=" + database);
+    }
+
+    private static ServiceProcess start(LoadTestConfig config, Deque<AutoCloseable> resources, HttpClient client,
+                                        String name, Path jar, List<String> properties) throws Exception {
+        var service = ServiceProcess.start(name, jar, config.javaOpts(), config.workDir(), properties);
+        resources.push(service);
+        service.awaitHealthy(client, STARTUP_TIMEOUT);
+        return service;
+    }
+
+    /*
+     * In reverse order of starting: the services go before the Mongo and stubs they use.
+     */
+    private static void closeAll(Deque<AutoCloseable> resources) {
+        synchronized (resources) {
+            while (!resources.isEmpty()) {
+                var resource = resources.pop();
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    log.warn("Failed to stop {}", resource, e);
+                }
+            }
+        }
+    }
+}
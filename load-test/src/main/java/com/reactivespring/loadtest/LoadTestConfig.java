@@ -0,0 +1,175 @@
+package com.reactivespring.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+ * Options come as --name=value arguments, every one of them has a default:
+ *
+ *   --services=info,reviews,movies   services to start and load
+ *   --rate=200                       arrivals per second, open model : not slowed down by slow responses
+ *   --arrivals=constant              constant or poisson inter-arrival times
+ *   --warmup=10s --duration=30s      the warmup ramps up to the rate and is not reported
+ *   --maxInFlight=2000               arrivals beyond this many outstanding requests count as dropped
+ *   --requestTimeout=5s
+ *   --seed=42                        endpoint mix and request parameters
+ *   --movies=1000 --reviewsPerMovie=5  data loaded before the run
+ *   --stubLatency=5ms                fixed delay of the stub upstreams of movies-service
+ *   --mongo=host:port                use a running mongod instead of the embedded one
+ *   --mongoVersion=4.0.21            embedded mongod version, downloaded once to ~/.embedmongo
+ *   --javaOpts=-Xmx512m              JVM options of the services
+ *   --gate.p99=500ms --gate.errorRate=0.01   merge gates, checked per endpoint
+ *   --infoJar --reviewsJar --moviesJar --workDir --report   set by the gradle loadTest task
+ */
+final class LoadTestConfig {
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+)(ms|s|m)");
+
+    private final Map<String, String> options;
+
+    private LoadTestConfig(Map<String, String> options) {
+        this.options = options;
+    }
+
+    static LoadTestConfig parse(String... args) {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("arguments must look like --name=value : " + arg);
+            }
+            var separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    Set<String> services() {
+        var services = new LinkedHashSet<>(Arrays.asList(string("services", "info,reviews,movies").split(",")));
+        if (!Set.of("info", "reviews", "movies").containsAll(services)) {
+            throw new IllegalArgumentException("services must be among info,reviews,movies : " + services);
+        }
+        return services;
+    }
+
+    double rate() {
+        var rate = Double.parseDouble(string("rate", "200"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive : " + rate);
+        }
+        return rate;
+    }
+
+    boolean poissonArrivals() {
+        var arrivals = string("arrivals", "constant");
+        if (!arrivals.equals("constant") && !arrivals.equals("poisson")) {
+            throw new IllegalArgumentException("arrivals must be constant or poisson : " + arrivals);
+        }
+        return arrivals.equals("poisson");
+    }
+
+    Duration warmup() {
+        return duration("warmup", "10s");
+    }
+
+    Duration duration() {
+        return duration("duration", "30s");
+    }
+
+    int maxInFlight() {
+        return Integer.parseInt(string("maxInFlight", "2000"));
+    }
+
+    Duration requestTimeout() {
+        return duration("requestTimeout", "5s");
+    }
+
+    long seed() {
+        return Long.parseLong(string("seed", "42"));
+    }
+
+    int movies() {
+        return Integer.parseInt(string("movies", "1000"));
+    }
+
+    int reviewsPerMovie() {
+        return Integer.parseInt(string("reviewsPerMovie", "5"));
+    }
+
+    Duration stubLatency() {
+        return duration("stubLatency", "5ms");
+    }
+
+    /*
+     * host:port of a running mongod, null to start the embedded one.
+     */
+    String mongo() {
+        var mongo = options.get("mongo");
+        if (mongo != null && !mongo.matches("[^:]+:\\d+")) {
+            throw new IllegalArgumentException("mongo must look like host:port : " + mongo);
+        }
+        return mongo;
+    }
+
+    String mongoVersion() {
+        return string("mongoVersion", "4.0.21");
+    }
+
+    String javaOpts() {
+        return string("javaOpts", "-Xmx512m");
+    }
+
+    Duration p99Gate() {
+        return options.containsKey("gate.p99") ? duration("gate.p99", null) : null;
+    }
+
+    Double errorRateGate() {
+        return options.containsKey("gate.errorRate") ? Double.parseDouble(options.get("gate.errorRate")) : null;
+    }
+
+    Path jar(String service) {
+        return Path.of(required(service + "Jar"));
+    }
+
+    Path workDir() {
+        return Path.of(string("workDir", "build/load-test"));
+    }
+
+    Path report() {
+        return Path.of(string("report", "build/reports/load-test/report.json"));
+    }
+
+    private String string(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private String required(String name) {
+        var value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+
+    private Duration duration(String name, String defaultValue) {
+        var value = string(name, defaultValue);
+        var matcher = DURATION.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(name + " must be a duration like 250ms, 30s or 2m : " + value);
+        }
+        var amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2)) {
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            default:
+                return Duration.ofSeconds(amount);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.reactivespring.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Open workload model: requests arrive on a schedule of their own, constant or Poisson, whether or not
+ * the earlier ones have been answered, the way independent users arrive. A closed loop of N workers
+ * waiting on their responses would slow down with the service and hide exactly the latency we are
+ * after. The schedule runs on one thread and only hands requests to reactor-netty, and when it falls
+ * behind the late arrivals are sent at once and still measured from the time they were due.
+ */
+final class OpenModelLoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenModelLoadGenerator.class);
+
+    private final HttpClient client;
+    private final List<Endpoint> endpoints;
+    private final Map<String, String> baseUrls;
+    private final LoadTestConfig config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenModelLoadGenerator(HttpClient client, List<Endpoint> endpoints, Map<String, String> baseUrls, LoadTestConfig config) {
+        this.client = client;
+        this.endpoints = endpoints;
+        this.baseUrls = baseUrls;
+        this.config = config;
+    }
+
+    /*
+     * Blocks for warmup + duration, then for the requests still in flight, and returns the stats of the
+     * arrivals after the warmup, by endpoint name in the order of the mix.
+     */
+    Map<String, EndpointStats> run() {
+        var stats = new LinkedHashMap<String, EndpointStats>();
+        var ignored = new LinkedHashMap<String, EndpointStats>();
+        var totalWeight = 0;
+        for (var endpoint : endpoints) {
+            stats.put(endpoint.name(), new EndpointStats(endpoint.name(), config.requestTimeout().multipliedBy(2)));
+            ignored.put(endpoint.name(), new EndpointStats(endpoint.name(), config.requestTimeout().multipliedBy(2)));
+            totalWeight += endpoint.weight();
+        }
+
+        var random = new SplittableRandom(config.seed());
+        var meanInterArrivalNanos = 1e9 / config.rate();
+        var start = System.nanoTime();
+        var measureFrom = start + config.warmup().toNanos();
+        var end = measureFrom + config.duration().toNanos();
+        log.info("Loading {} endpoints at {}/s for {} + {} warmup", endpoints.size(), config.rate(),
+                config.duration(), config.warmup());
+
+        double intended = start;
+        while (intended < end) {
+            var due = (long) intended;
+            var wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            var endpoint = pick(random, totalWeight);
+            var measured = due >= measureFrom;
+            send(endpoint, random, due, (measured ? stats : ignored).get(endpoint.name()));
+            var interArrival = measured
+                    ? meanInterArrivalNanos
+                    : meanInterArrivalNanos / warmupShare(due - start);
+            intended += config.poissonArrivals()
+                    ? -Math.log(1 - random.nextDouble()) * interArrival
+                    : interArrival;
+        }
+
+        var drainUntil = System.nanoTime() + config.requestTimeout().plusSeconds(1).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+        return stats;
+    }
+
+    /*
+     * The warmup ramps from a tenth of the rate up to the full rate: a cold JVM loaded at full rate from
+     * its first second times out its upstream calls and opens the circuit breakers before the measurement
+     * even starts.
+     */
+    private double warmupShare(long elapsedNanos) {
+        var warmup = config.warmup().toNanos();
+        return warmup == 0 ? 1 : Math.max(0.1, Math.min(1, (double) elapsedNanos / warmup));
+    }
+
+    private Endpoint pick(SplittableRandom random, int totalWeight) {
+        var ticket = random.nextInt(totalWeight);
+        for (var endpoint : endpoints) {
+            ticket -= endpoint.weight();
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private void send(Endpoint endpoint, SplittableRandom random, long intendedNanos, EndpointStats stats) {
+        stats.arrival();
+        // drawn on the schedule thread, the random is not shared with the event loops
+        var uri = baseUrls.get(endpoint.service()) + endpoint.path(random, config.movies());
+        var body = endpoint.body(random, config.movies());
+        if (inFlight.incrementAndGet() > config.maxInFlight()) {
+            inFlight.decrementAndGet();
+            stats.dropped();
+            return;
+        }
+
+        HttpClient.ResponseReceiver<?> request = body == null
+                ? client.request(HttpMethod.valueOf(endpoint.method())).uri(uri)
+                : client.headers(headers -> headers.set("Content-Type", "application/json"))
+                        .request(HttpMethod.valueOf(endpoint.method())).uri(uri)
+                        .send(ByteBufFlux.fromString(Mono.just(body)));
+        request.responseSingle((response, content) -> content.asByteArray()
+                        .thenReturn(response.status().code())
+                        .defaultIfEmpty(response.status().code()))
+                .timeout(config.requestTimeout())
+                .doFinally(signalType -> inFlight.decrementAndGet())
+                .subscribe(
+                        status -> stats.response(status, System.nanoTime() - intendedNanos),
+                        ex -> {
+                            if (ex instanceof TimeoutException) {
+                                stats.timeout(System.nanoTime() - intendedNanos);
+                            } else {
+                                stats.failure();
+                            }
+                        });
+    }
+}
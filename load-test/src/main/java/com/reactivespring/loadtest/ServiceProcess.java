@@ -0,0 +1,131 @@
+package com.reactivespring.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One service started from its boot jar in a JVM of its own, so that it is measured with its own heap,
+ * GC and event loops rather than sharing them with the load generator. Output goes to
+ * <workDir>/logs/<name>.log, which is the first place to look when a service does not get healthy.
+ */
+final class ServiceProcess implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceProcess.class);
+
+    private final String name;
+    private final Process process;
+    private final int port;
+    private final int managementPort;
+    private final Path logFile;
+
+    private ServiceProcess(String name, Process process, int port, int managementPort, Path logFile) {
+        this.name = name;
+        this.process = process;
+        this.port = port;
+        this.managementPort = managementPort;
+        this.logFile = logFile;
+    }
+
+    static ServiceProcess start(String name, Path jar, String javaOpts, Path workDir, List<String> properties) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("boot jar of " + name + " not found : " + jar);
+        }
+        var port = freePort();
+        var managementPort = freePort();
+        var logFile = workDir.resolve("logs").resolve(name + ".log");
+        Files.createDirectories(logFile.getParent());
+
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(javaOpts.trim().split("\\s+")));
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=" + managementPort);
+        command.addAll(properties);
+
+        log.info("Starting {} on port {} (management {}), log : {}", name, port, managementPort, logFile);
+        var process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new ServiceProcess(name, process, port, managementPort, logFile);
+    }
+
+    /*
+     * Polls the actuator health endpoint until it answers 200, failing early if the JVM exits.
+     */
+    void awaitHealthy(HttpClient client, Duration timeout) {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        var health = "http://localhost:" + managementPort + "/actuator/health";
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + logFile);
+            }
+            var status = client.get().uri(health)
+                    .responseSingle((response, content) -> content.asByteArray()
+                            .thenReturn(response.status().code())
+                            .defaultIfEmpty(response.status().code()))
+                    .onErrorResume(ex -> Mono.just(-1))
+                    .block(Duration.ofSeconds(5));
+            if (status != null && status == 200) {
+                log.info("{} is healthy", name);
+                return;
+            }
+            sleep(Duration.ofMillis(500));
+        }
+        throw new IllegalStateException(name + " not healthy within " + timeout + ", see " + logFile);
+    }
+
+    String name() {
+        return name;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static int freePort() {
+        try (var socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.reactivespring.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/*
+ * WireMock standing in for movies-info-service and movies-review-service behind movies-service, so the
+ * aggregation is measured on its own with an upstream latency we choose. The stubs answer any id
+ * with the same movie and reviews, like the __files of the movies-service integration tests.
+ */
+final class StubUpstreams implements AutoCloseable {
+
+    private static final String MOVIE_INFO = "{\"movieInfoId\":\"1\",\"name\":\"Batman Begins\",\"year\":2005,"
+            + "\"cast\":[\"Christian Bale\",\"Michael Cane\"],\"release_date\":\"2005-06-15\"}";
+
+    private static final String REVIEWS = "[{\"reviewId\":\"1\",\"movieInfoId\":1,\"comment\":\"Awesome Movie\",\"rating\":9.0},"
+            + "{\"reviewId\":\"2\",\"movieInfoId\":1,\"comment\":\"Excellent Movie\",\"rating\":8.0}]";
+
+    private final WireMockServer server;
+
+    private StubUpstreams(WireMockServer server) {
+        this.server = server;
+    }
+
+    static StubUpstreams start(int port, Duration latency) {
+        var server = new WireMockServer(options()
+                .port(port)
+                .containerThreads(200)
+                // the journal would keep every request of the run
+                .disableRequestJournal());
+        server.start();
+
+        var delay = (int) latency.toMillis();
+        server.stubFor(get(urlPathMatching("/v1/movieinfos/[^/]+"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(MOVIE_INFO)
+                        .withFixedDelay(delay)));
+        server.stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(REVIEWS)
+                        .withFixedDelay(delay)));
+        return new StubUpstreams(server);
+    }
+
+    int port() {
+        return server.port();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
@@ -0,0 +1,69 @@
+package com.reactivespring.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadTestConfigTest {
+
+    @Test
+    void parse_defaults() {
+        // when
+        var config = LoadTestConfig.parse();
+
+        // then
+        assertEquals(Set.of("info", "reviews", "movies"), config.services());
+        assertEquals(Duration.ofSeconds(10), config.warmup());
+        assertEquals(Duration.ofSeconds(30), config.duration());
+        assertNull(config.mongo());
+        assertNull(config.p99Gate());
+    }
+
+    @Test
+    void parse_options() {
+        // when
+        var config = LoadTestConfig.parse("--services=movies", "--rate=750", "--arrivals=poisson",
+                "--duration=2m", "--gate.p99=250ms", "--gate.errorRate=0.001", "--mongo=localhost:27017");
+
+        // then
+        assertEquals(Set.of("movies"), config.services());
+        assertEquals(750, config.rate());
+        assertTrue(config.poissonArrivals());
+        assertEquals(Duration.ofMinutes(2), config.duration());
+        assertEquals(Duration.ofMillis(250), config.p99Gate());
+        assertEquals(0.001, config.errorRateGate());
+        assertEquals("localhost:27017", config.mongo());
+    }
+
+    @Test
+    void parse_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("rate=10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--services=info,catalogue").services());
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse("--duration=10 seconds").duration());
+    }
+
+    @Test
+    void mix_onlySelectedServicesWithSeededIds() {
+        // given
+        var random = new SplittableRandom(42);
+
+        // when
+        var mix = Endpoint.mix(Set.of("reviews"));
+
+        // then
+        assertEquals(Set.of("reviews"), mix.stream().map(Endpoint::service).collect(Collectors.toSet()));
+        for (int i = 0; i < 1000; i++) {
+            var path = mix.get(0).path(random, 10);
+            var movieInfoId = Integer.parseInt(path.substring(path.indexOf('=') + 1));
+            assertTrue(movieInfoId >= 1 && movieInfoId <= 10, path);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.reactivespring.util;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Batching that keeps backpressure, for imports that must never sit in memory. bufferTimeout cannot be used
+ * for this: its timer fails the stream when it fires while nothing is requested, and putting an
+ * onBackpressureBuffer() behind it to avoid that requests the whole input upfront.
+ *
+ * Here a batch is cut when it holds batchSize items, or on a flush tick once window has passed since the
+ * previous cut. Items are only requested from upstream as batches are requested downstream, and a tick that
+ * arrives while nothing is requested just waits in line with the items: it cuts the next batch early at most.
+ */
+public final class Batches {
+
+    private static final Object FLUSH = new Object();
+    private static final Object END = new Object();
+
+    private Batches() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Flux<List<T>> of(Flux<T> items, int batchSize, Duration window) {
+        return Flux.defer(() -> {
+            var state = new CutState(batchSize, window.toNanos());
+            Flux<Object> ticks = Flux.interval(window, window)
+                    .map(tick -> FLUSH)
+                    .onBackpressureDrop();
+            var itemsThenEnd = Flux.<Object>concat(items, Flux.just(END));
+
+            return Flux.merge(itemsThenEnd, ticks)
+                    .takeWhile(element -> element != END)
+                    .bufferUntil(state::cut)
+                    .map(batch -> {
+                        var cut = new ArrayList<T>(batch.size());
+                        for (var element : batch) {
+                            if (element != FLUSH) {
+                                cut.add((T) element);
+                            }
+                        }
+                        return (List<T>) cut;
+                    })
+                    .filter(batch -> !batch.isEmpty());
+        });
+    }
+
+    private static final class CutState {
+
+        private final int batchSize;
+        private final long windowNanos;
+        private int size;
+        private long lastCut = System.nanoTime();
+
+        private CutState(int batchSize, long windowNanos) {
+            this.batchSize = batchSize;
+            this.windowNanos = windowNanos;
+        }
+
+        /*
+         * A tick on an empty batch cuts it anyway, so ticks do not pile up while no items come in; the empty
+         * batch is dropped. A tick that waited behind a cut that just happened is ignored.
+         */
+        private boolean cut(Object element) {
+            var now = System.nanoTime();
+            if (element == FLUSH ? size == 0 || now - lastCut >= windowNanos : ++size >= batchSize) {
+                size = 0;
+                lastCut = now;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.reactivespring.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/*
+ * Collapses concurrent identical reads into one: while a call for a key is in flight, every other
+ * request for that key subscribes to the same call instead of starting its own. Nothing is kept once
+ * the call is over, so unlike a cache this never answers with the result of a call that had already
+ * completed when the request arrived.
+ *
+ * The key leaves the map once the call has terminated, a request that comes in after that starts a new
+ * call. The call is shared with replay(1).refCount(): a request that joins after the result was emitted
+ * but before the call completed still gets it, the call is cancelled once every request waiting on it has
+ * cancelled, and a request that subscribes to a call that already completed runs it again rather than
+ * getting nothing. The call runs in the context of the request that started it.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter calls;
+    private final Counter joined;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        if (meterRegistry == null) {
+            this.calls = null;
+            this.joined = null;
+            return;
+        }
+        this.calls = Counter.builder("singleflight.requests")
+                .description("Requests that started a call")
+                .tag("name", name)
+                .tag("outcome", "call")
+                .register(meterRegistry);
+        this.joined = Counter.builder("singleflight.requests")
+                .description("Requests that joined a call already in flight")
+                .tag("name", name)
+                .tag("outcome", "joined")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, Map::size)
+                .description("Keys with a call in flight")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            var started = new boolean[1];
+            var flight = inFlight.computeIfAbsent(key, k -> {
+                started[0] = true;
+                return flight(k, call);
+            });
+            count(started[0] ? calls : joined);
+            return flight;
+        });
+    }
+
+    /*
+     * After a write to key: requests already waiting keep the call in flight, but the next one starts a new
+     * call instead of joining one that may have read the key before the write.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Mono<V> flight(K key, Supplier<Mono<V>> call) {
+        // only ever removes its own entry, never a newer call for the same key
+        var flight = new AtomicReference<Mono<V>>();
+        flight.set(Mono.defer(call)
+                .flux()
+                .doFinally(signalType -> inFlight.remove(key, flight.get()))
+                .replay(1)
+                .refCount()
+                .singleOrEmpty());
+        return flight.get();
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.reactivespring.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchesTest {
+
+    @Test
+    void of_cutsFullBatchesAndFlushesTheRestOnCompletion() {
+        // when & then
+        StepVerifier.create(Batches.of(Flux.range(1, 7), 3, Duration.ofMinutes(1)))
+                .expectNext(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7))
+                .verifyComplete();
+    }
+
+    @Test
+    void of_flushesAPartialBatchOnceTheWindowHasPassed() {
+        // given
+        var items = Sinks.many().unicast().<Integer>onBackpressureBuffer();
+
+        // when & then : two items arrive and nothing else for a while
+        StepVerifier.create(Batches.of(items.asFlux(), 10, Duration.ofMillis(50)))
+                .then(() -> {
+                    items.tryEmitNext(1);
+                    items.tryEmitNext(2);
+                })
+                .expectNext(List.of(1, 2))
+                .then(() -> {
+                    items.tryEmitNext(3);
+                    items.tryEmitComplete();
+                })
+                .expectNext(List.of(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void of_readsOnlyAsBatchesAreRequested() {
+        // given
+        var requested = new AtomicLong();
+        var items = Flux.range(1, 100_000).doOnRequest(requested::addAndGet);
+
+        // when & then : the window passes several times while nothing is requested, and nothing fails
+        StepVerifier.create(Batches.of(items, 10, Duration.ofMillis(10)), 1)
+                .expectNext(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))
+                .then(() -> sleep(100))
+                .then(() -> assertTrue(requested.get() < 1_000, "requested " + requested.get()))
+                .thenRequest(1)
+                .expectNextMatches(batch -> !batch.isEmpty() && batch.get(0) == 11)
+                .thenCancel()
+                .verify();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.reactivespring.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("movieInfo", meterRegistry);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancels = new AtomicInteger();
+
+    private Supplier<Mono<String>> call(Sinks.One<String> result) {
+        return () -> {
+            calls.incrementAndGet();
+            return result.asMono().doOnCancel(cancels::incrementAndGet);
+        };
+    }
+
+    @Test
+    void execute_concurrentRequestsShareOneCall() throws Exception {
+        // given
+        var result = Sinks.<String>one();
+
+        // when
+        var first = singleFlight.execute("1", call(result)).toFuture();
+        var second = singleFlight.execute("1", call(result)).toFuture();
+        result.tryEmitValue("Batman Begins");
+
+        // then
+        assertEquals("Batman Begins", first.get());
+        assertEquals("Batman Begins", second.get());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals(1.0, meterRegistry.counter("singleflight.requests", "name", "movieInfo", "outcome", "joined").count());
+    }
+
+    @Test
+    void execute_differentKeysDoNotShare() {
+        // when
+        singleFlight.execute("1", call(Sinks.one())).subscribe();
+        singleFlight.execute("2", call(Sinks.one())).subscribe();
+
+        // then
+        assertEquals(2, calls.get());
+        assertEquals(2, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_requestAfterCompletionStartsANewCall() {
+        // given
+        var firstResult = Sinks.<String>one();
+        var secondResult = Sinks.<String>one();
+        var first = singleFlight.execute("1", call(firstResult));
+        StepVerifier.create(first)
+                .then(() -> firstResult.tryEmitValue("Batman Begins"))
+                .expectNext("Batman Begins")
+                .verifyComplete();
+
+        // when & then : no result of the completed call is kept
+        StepVerifier.create(singleFlight.execute("1", call(secondResult)))
+                .then(() -> secondResult.tryEmitValue("The Dark Knight"))
+                .expectNext("The Dark Knight")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_callIsCancelledOnlyOnceEveryRequestCancelled() {
+        // given
+        var result = Sinks.<String>one();
+        var first = singleFlight.execute("1", call(result)).subscribe();
+        var second = singleFlight.execute("1", call(result)).subscribe();
+
+        // when
+        first.dispose();
+
+        // then
+        assertEquals(0, cancels.get());
+        assertEquals(1, singleFlight.inFlightCount());
+
+        // when
+        second.dispose();
+
+        // then
+        assertEquals(1, cancels.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_errorAndEmptyAreShared() {
+        // given
+        var failing = Sinks.<String>one();
+        var empty = Sinks.<String>one();
+        var firstFailing = singleFlight.execute("1", call(failing)).toFuture();
+        var secondFailing = singleFlight.execute("1", call(failing)).toFuture();
+        var firstEmpty = singleFlight.execute("2", call(empty)).toFuture();
+        var secondEmpty = singleFlight.execute("2", call(empty)).toFuture();
+
+        // when
+        failing.tryEmitError(new IllegalStateException("Mongo is down"));
+        empty.tryEmitEmpty();
+
+        // then
+        assertThrows(ExecutionException.class, firstFailing::get);
+        assertThrows(ExecutionException.class, secondFailing::get);
+        assertTrue(firstEmpty.isDone());
+        assertFalse(firstEmpty.isCompletedExceptionally());
+        assertTrue(secondEmpty.isDone());
+        assertEquals(2, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_requestJoiningBetweenResultAndCompletionGetsTheResult() {
+        // given : a call that has emitted its result but not completed yet
+        var result = Sinks.many().unicast().<String>onBackpressureBuffer();
+        Supplier<Mono<String>> call = () -> {
+            calls.incrementAndGet();
+            return Mono.fromDirect(result.asFlux());
+        };
+        var first = singleFlight.execute("1", call).toFuture();
+        result.tryEmitNext("Batman Begins");
+
+        // when
+        var second = singleFlight.execute("1", call).toFuture();
+        result.tryEmitComplete();
+
+        // then
+        assertEquals("Batman Begins", first.join());
+        assertEquals("Batman Begins", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_requestAfterForgetStartsANewCall() {
+        // given
+        var before = Sinks.<String>one();
+        var after = Sinks.<String>one();
+        var first = singleFlight.execute("1", call(before)).toFuture();
+
+        // when
+        singleFlight.forget("1");
+        var second = singleFlight.execute("1", call(after)).toFuture();
+        before.tryEmitValue("Batman");
+        after.tryEmitValue("Batman Begins");
+
+        // then
+        assertEquals("Batman", first.join());
+        assertEquals("Batman Begins", second.join());
+        assertEquals(2, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
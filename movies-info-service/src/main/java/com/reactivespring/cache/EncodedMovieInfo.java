@@ -0,0 +1,20 @@
+package com.reactivespring.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+
+/*
+ * A MovieInfo as it goes on the wire: the encoded bytes for one response, their ETag and media type.
+ * The body holds its own reference to the cached bytes, it is released by Netty once written and must be
+ * released by whoever decides not to write it (a 304 for instance).
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedMovieInfo {
+
+    private final DataBuffer body;
+    private final String etag;
+    private final MediaType mediaType;
+}
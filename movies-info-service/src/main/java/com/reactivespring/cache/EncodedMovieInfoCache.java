@@ -0,0 +1,217 @@
+package com.reactivespring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.service.MoviesInfoService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Response cache for GET /v1/movieinfos/{id}: keeps each MovieInfo the way it was last sent, encoded by the
+ * application's own Jackson codec into an unpooled direct buffer, with an ETag computed from those bytes.
+ * A hit neither reads Mongo nor runs Jackson, its bytes are handed to Netty as they are, and a conditional
+ * GET that matches the ETag is answered with a 304 from the cache alone.
+ *
+ * Entries are bounded by their encoded size and released when evicted. The buffers are not pooled on
+ * purpose: eviction releases them from another thread, and a pooled buffer could be handed out again
+ * before a lookup that still holds the entry tries to retain it. An unpooled buffer stays released and
+ * the lookup just misses. Writes through the catalogue invalidate the ids they touched, which also stops
+ * later loads from joining a query still in flight for them; a load that raced with an invalidation answers
+ * its own request but is not cached, so a document read before the write can never be served after it.
+ */
+@Component
+@Slf4j
+public class EncodedMovieInfoCache {
+
+    private static final ResolvableType MOVIE_INFO = ResolvableType.forClass(MovieInfo.class);
+    private static final List<MediaType> MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, CodecConfig.APPLICATION_SMILE);
+
+    private final MoviesInfoService moviesInfoService;
+    private final ServerCodecConfigurer serverCodecConfigurer;
+    private final boolean enabled;
+    private final Cache<Key, Entry> cache;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+    // bumped by every invalidation, a load only caches its result if no invalidation happened meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EncodedMovieInfoCache(MoviesInfoService moviesInfoService,
+                                 ServerCodecConfigurer serverCodecConfigurer,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${movieInfos.responseCache.enabled:true}") boolean enabled,
+                                 @Value("${movieInfos.responseCache.maximumBytes:67108864}") long maximumBytes,
+                                 @Value("${movieInfos.responseCache.expireAfterWrite:10m}") Duration expireAfterWrite) {
+        this.moviesInfoService = moviesInfoService;
+        this.serverCodecConfigurer = serverCodecConfigurer;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> entry.bytes.readableBytes())
+                .expireAfterWrite(expireAfterWrite)
+                .removalListener((Key key, Entry entry, com.github.benmanes.caffeine.cache.RemovalCause cause) -> {
+                    if (entry != null) {
+                        entry.bytes.release();
+                    }
+                })
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache, "movieInfoResponseCache");
+            Gauge.builder("movieinfo.response.cache.bytes", cache,
+                            c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                    .description("Encoded MovieInfo bytes held off-heap by the response cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        });
+    }
+
+    /*
+     * Empty if there is no MovieInfo with this id.
+     */
+    public Mono<EncodedMovieInfo> get(String id, MediaType mediaType) {
+        return Mono.defer(() -> {
+            var key = new Key(id, mediaType);
+            var entry = enabled ? cache.getIfPresent(key) : null;
+            var cached = entry == null ? null : entry.response(bufferFactory, mediaType);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            var generation = invalidations.get();
+            return moviesInfoService.getMovieInfoById(id)
+                    .map(movieInfo -> {
+                        var loaded = encode(movieInfo, mediaType);
+                        var response = loaded.response(bufferFactory, mediaType);
+                        if (enabled && invalidations.get() == generation) {
+                            cache.put(key, loaded);
+                            // an invalidation between the check and the put may have missed the entry
+                            if (invalidations.get() != generation) {
+                                cache.asMap().remove(key, loaded);
+                            }
+                        } else {
+                            loaded.bytes.release();
+                        }
+                        return response;
+                    });
+        });
+    }
+
+    public void invalidate(Collection<String> ids) {
+        invalidations.incrementAndGet();
+        // a load after the write must not join a query that read the document before it
+        moviesInfoService.forgetInFlightReads(ids);
+        for (var id : ids) {
+            for (var mediaType : MEDIA_TYPES) {
+                cache.invalidate(new Key(id, mediaType));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        moviesInfoService.forgetAllInFlightReads();
+        cache.invalidateAll();
+    }
+
+    /*
+     * Encoded once on the heap to compute the ETag, the same way ShallowEtagHeaderFilter does, then copied
+     * into a direct buffer that stays with the entry.
+     */
+    private Entry encode(MovieInfo movieInfo, MediaType mediaType) {
+        var heapBuffer = encoder(mediaType).encodeValue(movieInfo, DefaultDataBufferFactory.sharedInstance,
+                MOVIE_INFO, mediaType, Map.of());
+        var encoded = new byte[heapBuffer.readableByteCount()];
+        heapBuffer.read(encoded);
+        DataBufferUtils.release(heapBuffer);
+
+        var bytes = Unpooled.directBuffer(encoded.length);
+        bytes.writeBytes(encoded);
+        return new Entry(bytes, "\"0" + DigestUtils.md5DigestAsHex(encoded) + "\"");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Encoder<MovieInfo> encoder(MediaType mediaType) {
+        return serverCodecConfigurer.getWriters().stream()
+                .filter(writer -> writer instanceof EncoderHttpMessageWriter)
+                .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .filter(encoder -> encoder.canEncode(MOVIE_INFO, mediaType))
+                .findFirst()
+                .map(encoder -> (Encoder<MovieInfo>) encoder)
+                .orElseThrow(() -> new IllegalStateException("no encoder for MovieInfo as " + mediaType));
+    }
+
+    private static final class Entry {
+
+        private final ByteBuf bytes;
+        private final String etag;
+
+        private Entry(ByteBuf bytes, String etag) {
+            this.bytes = bytes;
+            this.etag = etag;
+        }
+
+        /*
+         * A duplicate with its own reference for one response, null if eviction released the bytes
+         * between the lookup and now.
+         */
+        private EncodedMovieInfo response(NettyDataBufferFactory bufferFactory, MediaType mediaType) {
+            try {
+                return new EncodedMovieInfo(bufferFactory.wrap(bytes.retainedDuplicate()), etag, mediaType);
+            } catch (IllegalReferenceCountException ex) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final String id;
+        private final MediaType mediaType;
+
+        private Key(String id, MediaType mediaType) {
+            this.id = id;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            var key = (Key) other;
+            return id.equals(key.id) && mediaType.equals(key.mediaType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id.hashCode() + mediaType.hashCode();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    // the routes this service serves, literal ones before the templates that would also match them
+    private static final List<String> ROUTES = List.of(
+            "/flux",
+            "/mono",
+            "/stream",
+            "/v1/movieinfos/page",
+            "/v1/movieinfos/search",
+            "/v1/movieinfos/export",
+            "/v1/movieinfos/catalogue",
+            "/v1/movieinfos/{id}");
+
+    /*
+     * Reactor Netty server metrics (connections, bytes, response time per uri and method) next to
+     * Spring's http.server.requests. Netty only sees the raw uri, so it is mapped to the route it matches,
+     * query string dropped; anything else, a scan of random paths say, is tagged UNMATCHED. Otherwise every
+     * movie, and every path anyone tries, would become a time series of its own.
+     */
+    @Bean
+    public NettyServerCustomizer nettyServerMetrics() {
+        return httpServer -> httpServer.metrics(true, MetricsConfig::uriTag);
+    }
+
+    public static String uriTag(String uri) {
+        var queryStart = uri.indexOf('?');
+        var path = (queryStart < 0 ? uri : uri.substring(0, queryStart)).split("/");
+        for (var route : ROUTES) {
+            if (matches(route.split("/"), path)) {
+                return route;
+            }
+        }
+        return UNMATCHED;
+    }
+
+    private static boolean matches(String[] route, String[] path) {
+        if (route.length != path.length) {
+            return false;
+        }
+        for (int i = 0; i < route.length; i++) {
+            var variable = route[i].startsWith("{") && !path[i].isEmpty();
+            if (!variable && !route[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
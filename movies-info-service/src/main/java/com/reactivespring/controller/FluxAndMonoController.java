@@ -1,5 +1,6 @@
 package com.reactivespring.controller;
 
+import com.reactivespring.util.SignalMetrics;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -7,10 +8,20 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.function.Function;
 
 @RestController
 public class FluxAndMonoController {
 
+    // built once, each of them registers its meters
+    private final Function<Mono<String>, Mono<String>> monoSignals;
+    private final Function<Flux<Long>, Flux<Long>> streamSignals;
+
+    public FluxAndMonoController(SignalMetrics signals) {
+        this.monoSignals = signals.mono("mono");
+        this.streamSignals = signals.flux("stream");
+    }
+
     @GetMapping("/flux")
     public Flux<Integer> flux() {
         return Flux.just(1, 2, 3, 4, 5);
@@ -18,7 +29,8 @@ public class FluxAndMonoController {
 
     @GetMapping("/mono")
     public Mono<String> mono() {
-        return Mono.just("Hello, Reactor!").log();
+        return Mono.just("Hello, Reactor!")
+                .transform(monoSignals);
     }
 
     /*
@@ -29,6 +41,6 @@ public class FluxAndMonoController {
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<Long> stream() {
         return Flux.interval(Duration.ofSeconds(1))
-                .log();
+                .transform(streamSignals);
     }
 }
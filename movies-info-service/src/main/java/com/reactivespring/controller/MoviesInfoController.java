@@ -0,0 +1,175 @@
+package com.reactivespring.controller;
+
+import com.reactivespring.cache.EncodedMovieInfo;
+import com.reactivespring.cache.EncodedMovieInfoCache;
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.CatalogueBatchResult;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoPage;
+import com.reactivespring.service.MovieInfoCatalogueService;
+import com.reactivespring.service.MoviesInfoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1")
+public class MoviesInfoController {
+
+    private final MoviesInfoService moviesInfoService;
+    private final MovieInfoCatalogueService movieInfoCatalogueService;
+    private final EncodedMovieInfoCache encodedMovieInfoCache;
+
+    @Value("${movieInfos.page.defaultSize:50}")
+    private int defaultPageSize;
+
+    @Value("${movieInfos.page.maxSize:500}")
+    private int maxPageSize;
+
+    @Value("${movieInfos.search.maxLimit:1000}")
+    private int maxSearchLimit;
+
+    public MoviesInfoController(MoviesInfoService moviesInfoService, MovieInfoCatalogueService movieInfoCatalogueService,
+                                EncodedMovieInfoCache encodedMovieInfoCache) {
+        this.moviesInfoService = moviesInfoService;
+        this.movieInfoCatalogueService = movieInfoCatalogueService;
+        this.encodedMovieInfoCache = encodedMovieInfoCache;
+    }
+
+    /*
+     * Served from the EncodedMovieInfoCache: the body goes out as the bytes it was cached as, and an
+     * If-None-Match that still matches is answered with a 304 without reading Mongo.
+     * The ETag is checked here rather than left to the framework so the cached body is released, not leaked,
+     * when it is not written.
+     */
+    @GetMapping("/movieinfos/{id}")
+    public Mono<ResponseEntity<DataBuffer>> getMovieInfoById(@PathVariable String id, ServerWebExchange exchange) {
+        return encodedMovieInfoCache.get(id, responseMediaType(exchange.getRequest().getHeaders()))
+                .map(encoded -> {
+                    if (exchange.checkNotModified(encoded.getEtag())) {
+                        DataBufferUtils.release(encoded.getBody());
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(encoded.getEtag())
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .<DataBuffer>build();
+                    }
+                    return ok(encoded);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/movieinfos/page")
+    public Mono<MovieInfoPage> getMovieInfosPage(@RequestParam(value = "token", required = false) String token,
+                                                 @RequestParam(value = "size", required = false) Integer size) {
+        var pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + maxPageSize));
+        }
+        return moviesInfoService.getMovieInfosPage(token, pageSize);
+    }
+
+    /*
+     * Indexed search by year range, cast member and/or words of the name, at least one of them is required.
+     */
+    @GetMapping("/movieinfos/search")
+    public Flux<MovieInfo> searchMovieInfos(@RequestParam(value = "yearFrom", required = false) Integer yearFrom,
+                                            @RequestParam(value = "yearTo", required = false) Integer yearTo,
+                                            @RequestParam(value = "cast", required = false) String cast,
+                                            @RequestParam(value = "name", required = false) String name,
+                                            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (yearFrom == null && yearTo == null && cast == null && name == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "one of yearFrom, yearTo, cast or name must be present"));
+        }
+        if (limit < 1 || limit > maxSearchLimit) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + maxSearchLimit));
+        }
+        return moviesInfoService.searchMovieInfos(yearFrom, yearTo, cast, name, limit);
+    }
+
+    /*
+     * One MovieInfo per line, written as it comes off the cursor. A sync job that dies half way
+     * calls again with afterId set to the last movieInfoId it stored.
+     */
+    @GetMapping(value = "/movieinfos/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieInfo> exportMovieInfos(@RequestParam(value = "afterId", required = false) String afterId) {
+        return moviesInfoService.exportMovieInfos(afterId);
+    }
+
+    /*
+     * Same export as Server-Sent Events. Every event carries the movieInfoId as its id, so a client
+     * that reconnects with the standard Last-Event-ID header picks up where it stopped.
+     */
+    @GetMapping(value = "/movieinfos/export", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<MovieInfo>> exportMovieInfosAsEvents(
+            @RequestParam(value = "afterId", required = false) String afterId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        var resumeAfter = lastEventId != null ? lastEventId : afterId;
+
+        return moviesInfoService.exportMovieInfos(resumeAfter)
+                .map(movieInfo -> ServerSentEvent.builder(movieInfo)
+                        .id(movieInfo.getMovieInfoId())
+                        .event("movieinfo")
+                        .build());
+    }
+
+    /*
+     * Catalogue load: NDJSON MovieInfo lines in, one CatalogueBatchResult per upserted batch out, both streamed.
+     */
+    @PostMapping(value = "/movieinfos/catalogue", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogueBatchResult> loadCatalogue(@RequestBody Flux<String> lines) {
+        return movieInfoCatalogueService.load(lines);
+    }
+
+    private static ResponseEntity<DataBuffer> ok(EncodedMovieInfo encoded) {
+        return ResponseEntity.ok()
+                .contentType(encoded.getMediaType())
+                .eTag(encoded.getEtag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(encoded.getBody());
+    }
+
+    // Smile only when the client asks for it ahead of JSON, a wildcard or no Accept header gets JSON
+    private static MediaType responseMediaType(HttpHeaders headers) {
+        var accepted = headers.getAccept();
+        if (accepted.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (var mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (!mediaType.isWildcardSubtype() && mediaType.isCompatibleWith(CodecConfig.APPLICATION_SMILE)) {
+                return CodecConfig.APPLICATION_SMILE;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        throw new NotAcceptableStatusException(List.of(MediaType.APPLICATION_JSON, CodecConfig.APPLICATION_SMILE));
+    }
+}
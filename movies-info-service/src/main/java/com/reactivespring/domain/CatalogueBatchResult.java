@@ -0,0 +1,19 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogueBatchResult {
+
+    private Long batch;
+    private Integer received;
+    private Integer inserted;
+    private Integer updated;
+    private List<MovieInfoReject> rejects;
+}
@@ -0,0 +1,40 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+// year range searches, sorted by year and name straight off the index
+@CompoundIndex(name = "year_name", def = "{'year': 1, 'name': 1}")
+public class MovieInfo {
+
+    @Id
+    private String movieInfoId;
+    @NotBlank(message = "movieInfo.name must be present")
+    @TextIndexed
+    private String name;
+    @NotNull
+    @Positive(message = "movieInfo.year must be a Positive Value")
+    private Integer year;
+
+    @NotNull
+    // multikey, one index entry per cast member
+    @Indexed
+    private List<@NotBlank(message = "movieInfo.cast must be present") String> cast;
+    private LocalDate release_date;
+}
@@ -0,0 +1,16 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoReject {
+
+    // 1-based line number in the loaded catalogue
+    private Long line;
+    private String movieInfoId;
+    private String message;
+}
@@ -0,0 +1,178 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.reactivespring.cache.EncodedMovieInfoCache;
+import com.reactivespring.domain.CatalogueBatchResult;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoReject;
+import com.reactivespring.util.Batches;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+ * Weekly catalogue refresh: MovieInfo lines are parsed and validated in parallel on a small dedicated
+ * scheduler (validation is CPU work and must not run on the event loop), then upserted by movieInfoId in
+ * batches, one unordered bulkWrite per batch. Batches are written one after the other: the same movieInfoId can
+ * show up in two batches, and the later line must be the one left in the collection. Each batch reports what it
+ * wrote and which lines it rejected.
+ * The ids of a batch are evicted from the EncodedMovieInfoCache once its write is done, whatever its outcome.
+ */
+@Service
+@Slf4j
+public class MovieInfoCatalogueService {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final EncodedMovieInfoCache encodedMovieInfoCache;
+    private final Validator validator;
+    private final Scheduler validationScheduler;
+    private final int validationParallelism;
+    private final int batchSize;
+    private final Duration window;
+
+    public MovieInfoCatalogueService(ReactiveMongoTemplate reactiveMongoTemplate,
+                                     ObjectMapper objectMapper,
+                                     EncodedMovieInfoCache encodedMovieInfoCache,
+                                     Validator validator,
+                                     @Value("${movieInfos.catalogue.validationParallelism:4}") int validationParallelism,
+                                     @Value("${movieInfos.catalogue.batchSize:500}") int batchSize,
+                                     @Value("${movieInfos.catalogue.window:200ms}") Duration window) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.objectMapper = objectMapper;
+        this.encodedMovieInfoCache = encodedMovieInfoCache;
+        this.validator = validator;
+        this.validationScheduler = Schedulers.newParallel("movieinfo-validation", validationParallelism);
+        this.validationParallelism = validationParallelism;
+        this.batchSize = batchSize;
+        this.window = window;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationScheduler.dispose();
+    }
+
+    public Flux<CatalogueBatchResult> load(Flux<String> lines) {
+        var batchNumber = new AtomicLong();
+
+        var validatedLines = lines
+                .index((index, line) -> new CatalogueLine(index + 1, line))
+                .filter(catalogueLine -> !catalogueLine.line.isBlank())
+                // sequential so the batches keep the order of the catalogue, later lines win within a batch
+                .flatMapSequential(catalogueLine -> Mono.fromCallable(() -> validate(catalogueLine))
+                        .subscribeOn(validationScheduler), validationParallelism);
+
+        // the next batch is validated while one is written, lines are only read from the request as batches are written
+        return Batches.of(validatedLines, batchSize, window)
+                .concatMap(batch -> upsert(batchNumber.incrementAndGet(), batch));
+    }
+
+    private CatalogueLine validate(CatalogueLine catalogueLine) {
+        try {
+            var movieInfo = objectMapper.readValue(catalogueLine.line, MovieInfo.class);
+            catalogueLine.movieInfo = movieInfo;
+            if (movieInfo.getMovieInfoId() == null || movieInfo.getMovieInfoId().isBlank()) {
+                catalogueLine.reject = "movieInfo.movieInfoId must be present";
+                return catalogueLine;
+            }
+            var violations = validator.validate(movieInfo);
+            if (!violations.isEmpty()) {
+                catalogueLine.reject = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+        } catch (JsonProcessingException ex) {
+            catalogueLine.reject = "not a valid MovieInfo : " + ex.getOriginalMessage();
+        }
+        return catalogueLine;
+    }
+
+    private Mono<CatalogueBatchResult> upsert(long batch, List<CatalogueLine> catalogueLines) {
+        var rejects = new ArrayList<MovieInfoReject>();
+        // one write per movieInfoId, the last line for an id wins
+        var latestById = new LinkedHashMap<String, CatalogueLine>();
+        for (var catalogueLine : catalogueLines) {
+            if (catalogueLine.reject != null) {
+                rejects.add(catalogueLine.toReject(catalogueLine.reject));
+            } else {
+                latestById.remove(catalogueLine.movieInfo.getMovieInfoId());
+                latestById.put(catalogueLine.movieInfo.getMovieInfoId(), catalogueLine);
+            }
+        }
+        var toWrite = new ArrayList<>(latestById.values());
+        if (toWrite.isEmpty()) {
+            return Mono.just(new CatalogueBatchResult(batch, catalogueLines.size(), 0, 0, rejects));
+        }
+
+        var writes = new ArrayList<WriteModel<Document>>(toWrite.size());
+        for (var catalogueLine : toWrite) {
+            var document = new Document();
+            reactiveMongoTemplate.getConverter().write(catalogueLine.movieInfo, document);
+            writes.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                    new ReplaceOptions().upsert(true)));
+        }
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    ex.getWriteErrors().forEach(writeError ->
+                            rejects.add(toWrite.get(writeError.getIndex()).toReject(writeError.getMessage())));
+                    return Mono.just(ex.getWriteResult());
+                })
+                .doFinally(signalType -> encodedMovieInfoCache.invalidate(latestById.keySet()))
+                .map(result -> {
+                    rejects.sort(Comparator.comparing(MovieInfoReject::getLine));
+                    log.debug("Catalogue batch {} : {} lines, {} rejected", batch, catalogueLines.size(), rejects.size());
+                    return new CatalogueBatchResult(batch, catalogueLines.size(), inserted(result),
+                            result.getMatchedCount(), rejects);
+                });
+    }
+
+    private static int inserted(BulkWriteResult result) {
+        return result.getUpserts().size() + result.getInsertedCount();
+    }
+
+    private static final class CatalogueLine {
+
+        private final long number;
+        private final String line;
+        private MovieInfo movieInfo;
+        private String reject;
+
+        private CatalogueLine(long number, String line) {
+            this.number = number;
+            this.line = line;
+        }
+
+        private MovieInfoReject toReject(String message) {
+            return new MovieInfoReject(number, movieInfo == null ? null : movieInfo.getMovieInfoId(), message);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoPage;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+
+@Service
+public class MoviesInfoService {
+
+    // BSON type number of ObjectId
+    private static final int OBJECT_ID_TYPE = 7;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    // null when disabled
+    private final SingleFlight<String, MovieInfo> movieInfoReads;
+
+    @Value("${movieInfos.export.batchSize:500}")
+    private int exportBatchSize;
+
+    @Value("${movieInfos.export.prefetch:256}")
+    private int exportPrefetch;
+
+    public MoviesInfoService(ReactiveMongoTemplate reactiveMongoTemplate,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${movieInfos.singleFlight.enabled:true}") boolean singleFlight) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.movieInfoReads = singleFlight ? new SingleFlight<>("movieInfo", meterRegistry.getIfAvailable()) : null;
+    }
+
+    /*
+     * Concurrent reads of the same id share one query, see SingleFlight.
+     */
+    public Mono<MovieInfo> getMovieInfoById(String id) {
+        if (movieInfoReads == null) {
+            return reactiveMongoTemplate.findById(id, MovieInfo.class);
+        }
+        return movieInfoReads.execute(id, () -> reactiveMongoTemplate.findById(id, MovieInfo.class));
+    }
+
+    /*
+     * Called once ids were written: a read that starts after this never shares a query that began before.
+     */
+    public void forgetInFlightReads(Collection<String> ids) {
+        if (movieInfoReads != null) {
+            ids.forEach(movieInfoReads::forget);
+        }
+    }
+
+    public void forgetAllInFlightReads() {
+        if (movieInfoReads != null) {
+            movieInfoReads.forgetAll();
+        }
+    }
+
+    /*
+     * Streams the whole catalogue straight off a Mongo cursor in _id order, nothing is collected in memory.
+     * The cursor fetches exportBatchSize documents per round trip and limitRate keeps the demand towards
+     * it bounded, so a slow consumer slows the cursor down instead of filling a buffer.
+     * Passing the last id a consumer has seen resumes the export right after it.
+     */
+    public Flux<MovieInfo> exportMovieInfos(String afterId) {
+        var query = afterIdQuery(afterId)
+                .cursorBatchSize(exportBatchSize);
+
+        return reactiveMongoTemplate.find(query, MovieInfo.class)
+                .limitRate(exportPrefetch);
+    }
+
+    /*
+     * Keyset pagination on _id: a page starts with an index seek right after the last id of the previous
+     * page instead of skipping over it, so deep pages cost the same as the first one.
+     * One document more than the page size is read to know whether there is a next page.
+     */
+    public Mono<MovieInfoPage> getMovieInfosPage(String token, int size) {
+        var query = afterIdQuery(token == null ? null : decodeToken(token))
+                .limit(size + 1);
+
+        return reactiveMongoTemplate.find(query, MovieInfo.class)
+                .collectList()
+                .map(movieInfos -> {
+                    if (movieInfos.size() <= size) {
+                        return new MovieInfoPage(movieInfos, null);
+                    }
+                    var page = movieInfos.subList(0, size);
+                    return new MovieInfoPage(page, encodeToken(page.get(size - 1).getMovieInfoId()));
+                });
+    }
+
+    public Flux<MovieInfo> searchMovieInfos(Integer yearFrom, Integer yearTo, String cast, String name, int limit) {
+        return reactiveMongoTemplate.find(searchQuery(yearFrom, yearTo, cast, name, limit), MovieInfo.class);
+    }
+
+    /*
+     * Every criterion has an index behind it (see MovieInfo): year ranges use year_name, which also gives
+     * the year/name order for free, cast uses the multikey index and name goes through the text index,
+     * ranked by text score. Criteria can be combined, the planner picks one index and filters the rest.
+     */
+    static Query searchQuery(Integer yearFrom, Integer yearTo, String cast, String name, int limit) {
+        Query query;
+        if (name != null) {
+            query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(name)).sortByScore();
+        } else {
+            query = new Query().with(Sort.by(Sort.Direction.ASC, "year", "name"));
+        }
+
+        if (yearFrom != null || yearTo != null) {
+            var year = Criteria.where("year");
+            if (yearFrom != null) {
+                year.gte(yearFrom);
+            }
+            if (yearTo != null) {
+                year.lte(yearTo);
+            }
+            query.addCriteria(year);
+        }
+        if (cast != null) {
+            query.addCriteria(Criteria.where("cast").is(cast));
+        }
+        return query.limit(limit);
+    }
+
+    /*
+     * Generated ids are ObjectIds and in BSON order every string id sorts before every ObjectId. A range on
+     * one type never matches the other, so after a string id the ObjectIds are included explicitly.
+     */
+    private static Query afterIdQuery(String afterId) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (afterId == null || afterId.isBlank()) {
+            return query;
+        }
+        if (ObjectId.isValid(afterId)) {
+            return query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        return query.addCriteria(new Criteria().orOperator(
+                Criteria.where("_id").gt(afterId),
+                Criteria.where("_id").type(OBJECT_ID_TYPE)));
+    }
+
+    // the token is opaque to clients so that what it holds can change later
+    private static String encodeToken(String movieInfoId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(movieInfoId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeToken(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "token is not a valid page token : " + token);
+        }
+    }
+}
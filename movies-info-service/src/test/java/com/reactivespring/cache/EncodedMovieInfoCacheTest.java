@@ -0,0 +1,67 @@
+package com.reactivespring.cache;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.service.MoviesInfoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EncodedMovieInfoCacheTest {
+
+    ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+
+    // reads of the same id share one query, as in the application
+    MoviesInfoService moviesInfoService = new MoviesInfoService(reactiveMongoTemplate, meterRegistry, true);
+
+    EncodedMovieInfoCache encodedMovieInfoCache = new EncodedMovieInfoCache(moviesInfoService,
+            ServerCodecConfigurer.create(), meterRegistry, true, 1 << 20, Duration.ofMinutes(10));
+
+    private static MovieInfo movieInfo(String name) {
+        return new MovieInfo("1", name, 2005, List.of("Christian Bale"), LocalDate.parse("2005-06-15"));
+    }
+
+    private static String body(EncodedMovieInfo encodedMovieInfo) {
+        var body = encodedMovieInfo.getBody().toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(encodedMovieInfo.getBody());
+        return body;
+    }
+
+    @Test
+    void get_afterAWriteStartsANewRead() {
+        // given : a slow read of the document before the write is in flight
+        var beforeWrite = Sinks.<MovieInfo>one();
+        when(reactiveMongoTemplate.findById("1", MovieInfo.class))
+                .thenReturn(beforeWrite.asMono(), Mono.just(movieInfo("Batman Begins")));
+        var inFlight = encodedMovieInfoCache.get("1", MediaType.APPLICATION_JSON).toFuture();
+
+        // when : the write lands, then a request comes in before the old read answers
+        encodedMovieInfoCache.invalidate(Set.of("1"));
+        var afterWrite = encodedMovieInfoCache.get("1", MediaType.APPLICATION_JSON).toFuture();
+        beforeWrite.tryEmitValue(movieInfo("Batman"));
+
+        // then : only the request that was already waiting sees the old document, and it is not cached
+        assertTrue(body(inFlight.join()).contains("\"Batman\""));
+        assertTrue(body(afterWrite.join()).contains("\"Batman Begins\""));
+        var next = encodedMovieInfoCache.get("1", MediaType.APPLICATION_JSON).block();
+        assertTrue(body(next).contains("\"Batman Begins\""));
+    }
+}
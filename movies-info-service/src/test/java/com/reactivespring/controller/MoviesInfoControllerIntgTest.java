@@ -0,0 +1,171 @@
+package com.reactivespring.controller;
+
+import com.reactivespring.domain.CatalogueBatchResult;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+// tiny cursor batches so the export has to walk several getMore round trips
+@TestPropertySource(properties = {"movieInfos.export.batchSize=2", "movieInfos.export.prefetch=2"})
+class MoviesInfoControllerIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        var movieInfos = List.of(
+                new MovieInfo("1", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("2", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("3", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")),
+                new MovieInfo("4", "Inception", 2010, List.of("Leonardo DiCaprio"), LocalDate.parse("2010-07-16")),
+                new MovieInfo("5", "Interstellar", 2014, List.of("Matthew McConaughey"), LocalDate.parse("2014-11-07")));
+
+        reactiveMongoTemplate.insertAll(movieInfos).blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // remove rather than drop, so the indexes created at startup stay in place
+        reactiveMongoTemplate.remove(new Query(), MovieInfo.class).block();
+    }
+
+    @Test
+    void exportMovieInfos() {
+        // when
+        var movieInfoFlux = webTestClient.get().uri("/v1/movieinfos/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(MovieInfo.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(movieInfoFlux.map(MovieInfo::getMovieInfoId))
+                .expectNext("1", "2", "3", "4", "5")
+                .verifyComplete();
+    }
+
+    @Test
+    void exportMovieInfos_afterId() {
+        // when
+        var movieInfoFlux = webTestClient.get().uri("/v1/movieinfos/export?afterId={id}", "3")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(MovieInfo.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(movieInfoFlux.map(MovieInfo::getMovieInfoId))
+                .expectNext("4", "5")
+                .verifyComplete();
+    }
+
+    @Test
+    void getMovieInfosPage_walksAllPages() {
+        // given
+        var seen = new ArrayList<String>();
+        String token = null;
+
+        // when
+        do {
+            var uri = "/v1/movieinfos/page?size=2" + (token == null ? "" : "&token=" + token);
+            var page = webTestClient.get().uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .is2xxSuccessful()
+                    .expectBody(MovieInfoPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            assert page != null;
+            page.getMovieInfos().forEach(movieInfo -> seen.add(movieInfo.getMovieInfoId()));
+            token = page.getNextToken();
+        } while (token != null);
+
+        // then
+        assertEquals(List.of("1", "2", "3", "4", "5"), seen);
+    }
+
+    @Test
+    void loadCatalogue_upsertsByMovieInfoId() {
+        // given
+        var catalogue = String.join("\n",
+                "{\"movieInfoId\":\"1\", \"name\":\"Batman Begins (Remastered)\", \"year\":2005, \"cast\":[\"Christian Bale\"], \"release_date\":\"2005-06-15\"}",
+                "{\"movieInfoId\":\"6\", \"name\":\"Dunkirk\", \"year\":2017, \"cast\":[\"Tom Hardy\"], \"release_date\":\"2017-07-21\"}",
+                "{\"movieInfoId\":\"7\", \"name\":\"Tenet\", \"year\":0, \"cast\":[\"John David Washington\"], \"release_date\":\"2020-08-26\"}");
+
+        // when
+        var results = webTestClient.post().uri("/v1/movieinfos/catalogue")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(catalogue)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(CatalogueBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assert results != null;
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).getInserted());
+        assertEquals(1, results.get(0).getUpdated());
+        assertEquals("7", results.get(0).getRejects().get(0).getMovieInfoId());
+        assertEquals("Batman Begins (Remastered)", reactiveMongoTemplate.findById("1", MovieInfo.class).block().getName());
+        assertEquals(6L, reactiveMongoTemplate.count(new Query(), MovieInfo.class).block());
+    }
+
+    @Test
+    void searchMovieInfos_byYearRange() {
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/search?yearFrom=2008&yearTo=2012")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    var names = listEntityExchangeResult.getResponseBody().stream()
+                            .map(MovieInfo::getName)
+                            .collect(Collectors.toList());
+                    assertEquals(List.of("The Dark Knight", "Inception", "Dark Knight Rises"), names);
+                });
+    }
+
+    @Test
+    void searchMovieInfos_byCastAndName() {
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/search?cast={cast}&name={name}", "Christian Bale", "knight")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2);
+    }
+}
@@ -0,0 +1,318 @@
+package com.reactivespring.controller;
+
+import com.reactivespring.cache.EncodedMovieInfoCache;
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoPage;
+import com.reactivespring.service.MovieInfoCatalogueService;
+import com.reactivespring.service.MoviesInfoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = MoviesInfoController.class)
+@Import({CodecConfig.class, EncodedMovieInfoCache.class})
+@AutoConfigureWebTestClient
+class MoviesInfoControllerUnitTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    MoviesInfoService moviesInfoService;
+
+    @MockBean
+    MovieInfoCatalogueService movieInfoCatalogueService;
+
+    @Autowired
+    EncodedMovieInfoCache encodedMovieInfoCache;
+
+    private final List<MovieInfo> movieInfos = List.of(
+            new MovieInfo("1", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+            new MovieInfo("2", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+            new MovieInfo("3", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")));
+
+    @Test
+    void exportMovieInfos_ndjson() {
+        // given
+        when(moviesInfoService.exportMovieInfos(isNull())).thenReturn(Flux.fromIterable(movieInfos));
+
+        // when
+        var movieInfoFlux = webTestClient.get().uri("/v1/movieinfos/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(MovieInfo.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(movieInfoFlux.map(MovieInfo::getMovieInfoId))
+                .expectNext("1", "2", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void exportMovieInfos_resumesAfterId() {
+        // given
+        when(moviesInfoService.exportMovieInfos("1")).thenReturn(Flux.fromIterable(movieInfos.subList(1, 3)));
+
+        // when
+        var movieInfoFlux = webTestClient.get().uri("/v1/movieinfos/export?afterId={id}", "1")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(MovieInfo.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(movieInfoFlux.map(MovieInfo::getMovieInfoId))
+                .expectNext("2", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void exportMovieInfos_sseResumesFromLastEventId() {
+        // given
+        when(moviesInfoService.exportMovieInfos("2")).thenReturn(Flux.fromIterable(movieInfos.subList(2, 3)));
+
+        // when
+        var eventFlux = webTestClient.get().uri("/v1/movieinfos/export")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "2")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<MovieInfo>>() {
+                })
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(eventFlux)
+                .expectNextMatches(event -> "3".equals(event.id())
+                        && "Dark Knight Rises".equals(event.data().getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getMovieInfosPage() {
+        // given
+        when(moviesInfoService.getMovieInfosPage("MQ", 2))
+                .thenReturn(Mono.just(new MovieInfoPage(movieInfos.subList(1, 3), "Mw")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/page?size=2&token=MQ")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody(MovieInfoPage.class)
+                .consumeWith(movieInfoPageEntityExchangeResult -> {
+                    var page = movieInfoPageEntityExchangeResult.getResponseBody();
+                    assert page != null;
+                    assertEquals(2, page.getMovieInfos().size());
+                    assertEquals("Mw", page.getNextToken());
+                });
+    }
+
+    @Test
+    void getMovieInfosPage_sizeTooLarge() {
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/page?size=100000")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void searchMovieInfos() {
+        // given
+        when(moviesInfoService.searchMovieInfos(2005, 2010, null, null, 100)).thenReturn(Flux.fromIterable(movieInfos.subList(0, 2)));
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/search?yearFrom=2005&yearTo=2010")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(MovieInfo.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void searchMovieInfos_smile() {
+        // given
+        when(moviesInfoService.searchMovieInfos(2005, 2010, null, null, 100)).thenReturn(Flux.fromIterable(movieInfos.subList(0, 2)));
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/search?yearFrom=2005&yearTo=2010")
+                .accept(CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentType(CodecConfig.APPLICATION_SMILE)
+                .expectBodyList(MovieInfo.class)
+                .isEqualTo(movieInfos.subList(0, 2));
+    }
+
+    @Test
+    void searchMovieInfos_withoutCriteria() {
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/search")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getMovieInfoById() {
+        // given
+        encodedMovieInfoCache.invalidateAll();
+        when(moviesInfoService.getMovieInfoById("1")).thenReturn(Mono.just(movieInfos.get(0)));
+
+        // when & then
+        var etag = webTestClient.get().uri("/v1/movieinfos/{id}", "1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectHeader()
+                .valueEquals("Vary", "Accept")
+                .expectBody(MovieInfo.class)
+                .isEqualTo(movieInfos.get(0))
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(etag);
+
+        // the second GET is a cache hit with the same ETag
+        webTestClient.get().uri("/v1/movieinfos/{id}", "1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals("ETag", etag)
+                .expectBody(MovieInfo.class)
+                .isEqualTo(movieInfos.get(0));
+        verify(moviesInfoService, times(1)).getMovieInfoById("1");
+    }
+
+    @Test
+    void getMovieInfoById_notModified() {
+        // given
+        encodedMovieInfoCache.invalidateAll();
+        when(moviesInfoService.getMovieInfoById("2")).thenReturn(Mono.just(movieInfos.get(1)));
+        var etag = webTestClient.get().uri("/v1/movieinfos/{id}", "2")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/{id}", "2")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals("ETag", etag)
+                .expectBody()
+                .isEmpty();
+        verify(moviesInfoService, times(1)).getMovieInfoById("2");
+    }
+
+    @Test
+    void getMovieInfoById_reloadedAfterInvalidation() {
+        // given
+        encodedMovieInfoCache.invalidateAll();
+        var renamed = new MovieInfo("3", "The Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"));
+        when(moviesInfoService.getMovieInfoById("3")).thenReturn(Mono.just(movieInfos.get(2)), Mono.just(renamed));
+        var etag = webTestClient.get().uri("/v1/movieinfos/{id}", "3")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(MovieInfo.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // when
+        encodedMovieInfoCache.invalidate(List.of("3"));
+
+        // then
+        webTestClient.get().uri("/v1/movieinfos/{id}", "3")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(MovieInfo.class)
+                .isEqualTo(renamed);
+    }
+
+    @Test
+    void getMovieInfoById_smile() {
+        // given
+        encodedMovieInfoCache.invalidateAll();
+        when(moviesInfoService.getMovieInfoById("1")).thenReturn(Mono.just(movieInfos.get(0)));
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/{id}", "1")
+                .accept(CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(CodecConfig.APPLICATION_SMILE)
+                .expectBody(MovieInfo.class)
+                .isEqualTo(movieInfos.get(0));
+    }
+
+    @Test
+    void getMovieInfoById_notAcceptable() {
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/{id}", "1")
+                .accept(MediaType.APPLICATION_XML)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+        verify(moviesInfoService, never()).getMovieInfoById("1");
+    }
+
+    @Test
+    void getMovieInfoById_notFound() {
+        // given
+        when(moviesInfoService.getMovieInfoById("abc")).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.get().uri("/v1/movieinfos/{id}", "abc")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+}
@@ -0,0 +1,175 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.reactivespring.cache.EncodedMovieInfoCache;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoReject;
+import org.bson.BsonInt32;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieInfoCatalogueServiceTest {
+
+    @SuppressWarnings("unchecked")
+    MongoCollection<Document> collection = mock(MongoCollection.class);
+
+    ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+
+    EncodedMovieInfoCache encodedMovieInfoCache = mock(EncodedMovieInfoCache.class);
+
+    List<List<WriteModel<Document>>> bulkWrites = new ArrayList<>();
+
+    MovieInfoCatalogueService movieInfoCatalogueService = catalogueService(3);
+
+    private MovieInfoCatalogueService catalogueService(int batchSize) {
+        when(reactiveMongoTemplate.getConverter()).thenReturn(mongoConverter());
+        when(reactiveMongoTemplate.getCollectionName(MovieInfo.class)).thenReturn("movieInfo");
+        when(reactiveMongoTemplate.getCollection("movieInfo")).thenReturn(Mono.just(collection));
+        when(collection.bulkWrite(anyList(), any())).thenAnswer(invocation -> {
+            List<WriteModel<Document>> writes = invocation.getArgument(0);
+            bulkWrites.add(writes);
+            var upserts = IntStream.range(0, writes.size())
+                    .mapToObj(i -> new BulkWriteUpsert(i, new BsonInt32(i)))
+                    .collect(Collectors.toList());
+            return Mono.just(BulkWriteResult.acknowledged(0, 0, 0, 0, upserts));
+        });
+
+        return new MovieInfoCatalogueService(reactiveMongoTemplate, new ObjectMapper().findAndRegisterModules(),
+                encodedMovieInfoCache, Validation.buildDefaultValidatorFactory().getValidator(), 2, batchSize, Duration.ofSeconds(5));
+    }
+
+    // the same LocalDate etc. conversions the application context sets up
+    private static MappingMongoConverter mongoConverter() {
+        var conversions = new MongoCustomConversions(List.of());
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        var converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieInfoCatalogueService.shutdown();
+    }
+
+    private static String line(String id, String name, int year) {
+        return "{\"movieInfoId\":\"" + id + "\", \"name\":\"" + name + "\", \"year\":" + year
+                + ", \"cast\":[\"Christian Bale\"], \"release_date\":\"2005-06-15\"}";
+    }
+
+    @Test
+    void load_upsertsValidLinesInBatchesAndReportsRejects() {
+        // given
+        var lines = Flux.just(
+                line("1", "Batman Begins", 2005),
+                line("2", "", 2008),
+                "{not json",
+                line("3", "Dark Knight Rises", 2012),
+                line("4", "Inception", -1),
+                line("5", "Interstellar", 2014));
+
+        // when & then
+        StepVerifier.create(movieInfoCatalogueService.load(lines))
+                .assertNext(result -> {
+                    assertEquals(1L, result.getBatch());
+                    assertEquals(3, result.getReceived());
+                    assertEquals(1, result.getInserted());
+                    assertEquals(List.of(2L, 3L), result.getRejects().stream().map(MovieInfoReject::getLine).collect(Collectors.toList()));
+                    assertEquals("movieInfo.name must be present", result.getRejects().get(0).getMessage());
+                })
+                .assertNext(result -> {
+                    assertEquals(2L, result.getBatch());
+                    assertEquals(2, result.getInserted());
+                    assertEquals("4", result.getRejects().get(0).getMovieInfoId());
+                    assertEquals("movieInfo.year must be a Positive Value", result.getRejects().get(0).getMessage());
+                })
+                .verifyComplete();
+        assertEquals(2, bulkWrites.size());
+        verify(encodedMovieInfoCache).invalidate(Set.of("1"));
+        verify(encodedMovieInfoCache).invalidate(Set.of("3", "5"));
+    }
+
+    @Test
+    void load_lastLineWinsForTheSameMovieInfoIdInABatch() {
+        // given
+        var lines = Flux.just(
+                line("1", "Batman", 2005),
+                line("1", "Batman Begins", 2005),
+                line("2", "The Dark Knight", 2008));
+
+        // when & then
+        StepVerifier.create(movieInfoCatalogueService.load(lines))
+                .assertNext(result -> assertEquals(3, result.getReceived()))
+                .verifyComplete();
+        var writes = bulkWrites.get(0);
+        assertEquals(2, writes.size());
+        var replacement = ((ReplaceOneModel<Document>) writes.get(0)).getReplacement();
+        assertEquals("Batman Begins", replacement.getString("name"));
+    }
+
+    @Test
+    void load_writesOneBatchAtATimeSoTheLaterLineForAnIdWins() {
+        // given : the first write is slow, the second batch has a newer line for the same id
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var writeNumber = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<WriteModel<Document>> writes = invocation.getArgument(0);
+            var delay = Duration.ofMillis(writeNumber.getAndIncrement() == 0 ? 200 : 0);
+            return Mono.delay(delay)
+                    .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .map(tick -> {
+                        bulkWrites.add(writes);
+                        inFlight.decrementAndGet();
+                        return BulkWriteResult.acknowledged(0, writes.size(), 0, 0, List.of());
+                    });
+        }).when(collection).bulkWrite(anyList(), any());
+        var lines = Flux.just(
+                line("1", "Batman", 2005),
+                line("2", "The Dark Knight", 2008),
+                line("3", "Dark Knight Rises", 2012),
+                line("1", "Batman Begins", 2005));
+
+        // when & then
+        StepVerifier.create(movieInfoCatalogueService.load(lines))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(1, maxInFlight.get());
+        var lastWrite = (ReplaceOneModel<Document>) bulkWrites.get(1).get(0);
+        assertEquals("Batman Begins", lastWrite.getReplacement().getString("name"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.MovieInfo;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Proves the search queries are answered from the MovieInfo indexes: the winning plan of every
+ * search shape must not contain a collection scan.
+ */
+@SpringBootTest
+class MoviesInfoServiceIntgTest {
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        var movieInfos = List.of(
+                new MovieInfo(null, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo(null, "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo(null, "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")));
+
+        reactiveMongoTemplate.insertAll(movieInfos).blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveMongoTemplate.remove(new Query(), MovieInfo.class).block();
+    }
+
+    private String winningPlan(Query query) {
+        var explain = reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                .flatMap(collection -> Mono.from(collection.find(query.getQueryObject())
+                        .projection(query.getFieldsObject())
+                        .sort(query.getSortObject())
+                        .limit(query.getLimit())
+                        .explain()))
+                .block();
+        assert explain != null;
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+    }
+
+    @Test
+    void searchByYearRange_usesYearNameIndex() {
+        // when
+        var plan = winningPlan(MoviesInfoService.searchQuery(2005, 2010, null, null, 100));
+
+        // then
+        assertFalse(plan.contains("COLLSCAN"), plan);
+        assertTrue(plan.contains("year_name"), plan);
+        // the index already delivers year/name order
+        assertFalse(plan.contains("\"SORT\""), plan);
+    }
+
+    @Test
+    void searchByCast_usesMultikeyIndex() {
+        // when
+        var plan = winningPlan(MoviesInfoService.searchQuery(null, null, "Tom Hardy", null, 100));
+
+        // then
+        assertFalse(plan.contains("COLLSCAN"), plan);
+        assertTrue(plan.contains("IXSCAN"), plan);
+    }
+
+    @Test
+    void searchByName_usesTextIndex() {
+        // when
+        var plan = winningPlan(MoviesInfoService.searchQuery(null, null, null, "knight", 100));
+
+        // then
+        assertFalse(plan.contains("COLLSCAN"), plan);
+        assertTrue(plan.contains("TEXT"), plan);
+    }
+}
@@ -0,0 +1,36 @@
+package com.reactivespring.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+
+@Configuration
+public class CodecConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType APPLICATION_STREAM_SMILE = new MediaType("application", "stream+x-jackson-smile");
+
+    /*
+     * Smile, Jackson's binary JSON, for the calls between the services: a field name is written once per
+     * response and referenced afterwards, so a list of reviews does not repeat movieInfoId and comment
+     * for every element. JSON stays first in the codec list, so it is what any client gets unless it asks
+     * for application/x-jackson-smile. The Smile mapper is built from the same builder as the JSON one,
+     * so both agree on dates, unknown properties and modules.
+     */
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        var smileMapper = jackson2ObjectMapperBuilder.factory(new SmileFactory()).build();
+        return configurer -> {
+            // without explicit mime types the codecs would claim the JSON ones
+            configurer.defaultCodecs().jackson2SmileDecoder(
+                    new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE));
+            configurer.defaultCodecs().jackson2SmileEncoder(
+                    new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE));
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+
+/*
+ * Only the change stream listener needs transactions, and both require a replica set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reviews.ratingSummary.changeStream.enabled", havingValue = "true")
+public class MongoTransactionConfig {
+
+    @Bean
+    public ReactiveMongoTransactionManager reactiveMongoTransactionManager(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory) {
+        return new ReactiveMongoTransactionManager(reactiveMongoDatabaseFactory);
+    }
+}
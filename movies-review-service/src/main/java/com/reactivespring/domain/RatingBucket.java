@@ -0,0 +1,15 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingBucket {
+
+    // ratings are bucketed by their integer part, 8.5 is counted in bucket 8
+    private Integer rating;
+    private Long count;
+}
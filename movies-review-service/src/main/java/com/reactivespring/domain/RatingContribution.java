@@ -0,0 +1,27 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * What a single review currently adds to its movie's RatingSummary. Change stream update and delete
+ * events do not carry the previous rating, so this is what lets us retract it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class RatingContribution {
+
+    @Id
+    private String reviewId;
+    private Long movieInfoId;
+    private Double rating;
+
+    public static RatingContribution of(Review review) {
+        return new RatingContribution(review.getReviewId(), review.getMovieInfoId(), review.getRating());
+    }
+}
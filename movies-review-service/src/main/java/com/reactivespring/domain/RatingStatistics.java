@@ -0,0 +1,20 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingStatistics {
+
+    private Long movieInfoId;
+    private Long count;
+    private Double average;
+    private Double min;
+    private Double max;
+    private List<RatingBucket> histogram;
+}
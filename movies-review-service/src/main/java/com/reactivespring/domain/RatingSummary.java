@@ -0,0 +1,26 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class RatingSummary {
+
+    @Id
+    private Long movieInfoId;
+    private Long count;
+    private Double sum;
+
+    public Double getAverage() {
+        if (count == null || count == 0 || sum == null) {
+            return null;
+        }
+        return sum / count;
+    }
+}
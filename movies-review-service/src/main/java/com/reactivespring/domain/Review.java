@@ -5,20 +5,30 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document
+@CompoundIndexes({
+        // movieInfoId prefix serves the per-movie lookups, rating lets the ratings aggregation run off the index alone
+        @CompoundIndex(name = "movieInfoId_rating", def = "{'movieInfoId': 1, 'rating': 1}"),
+        // keyset pagination in (movieInfoId, _id) order, see ReviewPagingRepositoryImpl
+        @CompoundIndex(name = "movieInfoId_id", def = "{'movieInfoId': 1, '_id': 1}")
+})
 public class Review {
 
     @Id
     private String reviewId;
+    @NotNull(message = "rating.movieInfoId : must not be null")
     private Long movieInfoId;
     private String comment;
-    //@Min(value = 0L, message = "rating.negative : please pass a non-negative value")
+    @Min(value = 0L, message = "rating.negative : please pass a non-negative value")
     private Double rating;
 }
@@ -0,0 +1,18 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBatchResult {
+
+    private Long batch;
+    private Integer received;
+    private Integer inserted;
+    private List<ReviewLineError> errors;
+}
@@ -0,0 +1,17 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPage {
+
+    private List<Review> reviews;
+    // null on the last page, otherwise passed back as ?token= to get the next one
+    private String nextToken;
+}
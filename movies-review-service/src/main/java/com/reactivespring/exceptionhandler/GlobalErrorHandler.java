@@ -0,0 +1,48 @@
+package com.reactivespring.exceptionhandler;
+
+import com.reactivespring.exception.ReviewDataException;
+import com.reactivespring.exception.ReviewNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+@Order(-2)
+@Slf4j
+public class GlobalErrorHandler implements ErrorWebExceptionHandler {
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        log.error("Exception message is {} ", ex.getMessage(), ex);
+
+        var response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        var bufferFactory = response.bufferFactory();
+        var errorMessage = bufferFactory.wrap(String.valueOf(ex.getMessage()).getBytes(StandardCharsets.UTF_8));
+
+        if (ex instanceof ReviewDataException) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return response.writeWith(Mono.just(errorMessage));
+        }
+        if (ex instanceof ReviewNotFoundException) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return response.writeWith(Mono.just(errorMessage));
+        }
+        if (ex instanceof ResponseStatusException) {
+            response.setStatusCode(((ResponseStatusException) ex).getStatus());
+            return response.writeWith(Mono.just(errorMessage));
+        }
+        response.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+        return response.writeWith(Mono.just(errorMessage));
+    }
+}
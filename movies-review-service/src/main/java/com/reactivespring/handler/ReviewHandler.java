@@ -0,0 +1,286 @@
+package com.reactivespring.handler;
+
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.RatingStatistics;
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBatchResult;
+import com.reactivespring.domain.ReviewPage;
+import com.reactivespring.exception.ReviewDataException;
+import com.reactivespring.exception.ReviewNotFoundException;
+import com.reactivespring.repository.ReviewPageCursor;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.service.RatingSummaryService;
+import com.reactivespring.service.ReviewBulkIngestService;
+import com.reactivespring.service.ReviewFeed;
+import com.reactivespring.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ReviewHandler {
+
+    private static final ParameterizedTypeReference<Set<Long>> MOVIE_INFO_IDS = new ParameterizedTypeReference<>() {
+    };
+
+    private final ReviewReactiveRepository reviewReactiveRepository;
+    private final RatingSummaryService ratingSummaryService;
+    private final ReviewFeed reviewFeed;
+    private final ReviewBulkIngestService reviewBulkIngestService;
+    // null when disabled
+    private final SingleFlight<Long, List<Review>> movieReviewReads;
+
+    @Value("${reviews.batch.maxIds:500}")
+    private int maxBatchIds;
+
+    @Value("${reviews.page.defaultSize:50}")
+    private int defaultPageSize;
+
+    @Value("${reviews.page.maxSize:500}")
+    private int maxPageSize;
+
+    @Value("${reviews.stream.defaultOverflow:DROP_OLDEST}")
+    private ReviewFeed.Overflow defaultOverflow;
+
+    public ReviewHandler(ReviewReactiveRepository reviewReactiveRepository, RatingSummaryService ratingSummaryService,
+                         ReviewFeed reviewFeed, ReviewBulkIngestService reviewBulkIngestService,
+                         ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${reviews.singleFlight.enabled:true}") boolean singleFlight) {
+        this.reviewReactiveRepository = reviewReactiveRepository;
+        this.ratingSummaryService = ratingSummaryService;
+        this.reviewFeed = reviewFeed;
+        this.reviewBulkIngestService = reviewBulkIngestService;
+        this.movieReviewReads = singleFlight ? new SingleFlight<>("movieReviews", meterRegistry.getIfAvailable()) : null;
+    }
+
+    public Mono<ServerResponse> addReview(ServerRequest request) {
+        return request.bodyToMono(Review.class)
+                .flatMap(reviewReactiveRepository::save)
+                .flatMap(review -> ratingSummaryService.reviewSaved(review).thenReturn(review))
+                .doOnNext(reviewFeed::publish)
+                .flatMap(ServerResponse.status(201)::bodyValue);
+    }
+
+    /*
+     * NDJSON in (one Review per line), NDJSON out (one ReviewBatchResult per written batch). Both sides
+     * are streamed, so an import of any size never sits in memory.
+     */
+    public Mono<ServerResponse> bulkIngestReviews(ServerRequest request) {
+        var batchResults = reviewBulkIngestService.ingest(request.bodyToFlux(String.class));
+
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(batchResults, ReviewBatchResult.class);
+    }
+
+    /*
+     * Live feed of the reviews added from now on, for one movie or for all of them. The overflow query
+     * parameter picks what happens when this client reads slower than reviews arrive, see ReviewFeed.Overflow.
+     */
+    public Mono<ServerResponse> streamReviews(ServerRequest request) {
+        var movieInfoId = Optional.ofNullable(request.pathVariables().get("movieInfoId"))
+                .map(ReviewHandler::toMovieInfoId)
+                .orElse(null);
+        var overflow = request.queryParam("overflow")
+                .map(ReviewHandler::toOverflow)
+                .orElse(defaultOverflow);
+
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(reviewFeed.subscribe(movieInfoId, overflow), Review.class);
+    }
+
+    public Mono<ServerResponse> getReviews(ServerRequest request) {
+        var movieInfoId = request.queryParam("movieInfoId");
+
+        var reviewsFlux = movieInfoId
+                .map(id -> findReviewsByMovieInfoId(toMovieInfoId(id)))
+                .orElseGet(reviewReactiveRepository::findAll);
+
+        return ServerResponse.ok()
+                .contentType(contentType(request, CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON))
+                .body(reviewsFlux, Review.class);
+    }
+
+    /*
+     * Keyset paginated listing, optionally for one movie. One review more than asked for is read to know
+     * whether there is a next page, the token points right after the last review returned.
+     */
+    public Mono<ServerResponse> getReviewsPage(ServerRequest request) {
+        var movieInfoId = request.queryParam("movieInfoId")
+                .map(ReviewHandler::toMovieInfoId)
+                .orElse(null);
+        var after = request.queryParam("token")
+                .map(ReviewPageCursor::decode)
+                .orElse(null);
+        var size = request.queryParam("size")
+                .map(ReviewHandler::toPageSize)
+                .orElse(defaultPageSize);
+        if (size < 1 || size > maxPageSize) {
+            return Mono.error(new ReviewDataException("size must be between 1 and " + maxPageSize));
+        }
+
+        return reviewReactiveRepository.findReviewsPage(movieInfoId, after, size + 1)
+                .collectList()
+                .map(reviews -> {
+                    if (reviews.size() <= size) {
+                        return new ReviewPage(reviews, null);
+                    }
+                    var page = reviews.subList(0, size);
+                    return new ReviewPage(page, ReviewPageCursor.after(page.get(size - 1)).encode());
+                })
+                .flatMap(ServerResponse.ok()::bodyValue);
+    }
+
+    /*
+     * Resolves the reviews of many movies with one $in query instead of one query per movie.
+     * The result is streamed as one MovieReviews element per movie that has reviews; movies
+     * without reviews are simply absent from the stream. Streamed Smile for callers that ask for it,
+     * NDJSON otherwise.
+     */
+    public Mono<ServerResponse> getReviewsBatch(ServerRequest request) {
+        var movieReviewsFlux = request.bodyToMono(MOVIE_INFO_IDS)
+                .defaultIfEmpty(Set.of())
+                .flatMapMany(movieInfoIds -> {
+                    if (movieInfoIds.isEmpty()) {
+                        return Flux.error(new ReviewDataException("movieInfoIds must not be empty"));
+                    }
+                    if (movieInfoIds.size() > maxBatchIds) {
+                        return Flux.error(new ReviewDataException(
+                                "movieInfoIds must not contain more than " + maxBatchIds + " elements"));
+                    }
+                    return reviewReactiveRepository.findReviewsByMovieInfoIdIn(
+                            new LinkedHashSet<>(movieInfoIds), Sort.by("movieInfoId"));
+                })
+                .bufferUntilChanged(Review::getMovieInfoId)
+                .map(reviews -> new MovieReviews(reviews.get(0).getMovieInfoId(), reviews));
+
+        return ServerResponse.ok()
+                .contentType(contentType(request, CodecConfig.APPLICATION_STREAM_SMILE, MediaType.APPLICATION_NDJSON))
+                .body(movieReviewsFlux, MovieReviews.class);
+    }
+
+    /*
+     * Rating summary computed by an aggregation on the server, so no review text is read or shipped.
+     */
+    public Mono<ServerResponse> getRatingStatistics(ServerRequest request) {
+        var movieInfoIds = request.queryParams().getOrDefault("movieInfoId", List.of());
+        if (movieInfoIds.isEmpty()) {
+            return Mono.error(new ReviewDataException("movieInfoId must be present"));
+        }
+        if (movieInfoIds.size() > maxBatchIds) {
+            return Mono.error(new ReviewDataException(
+                    "movieInfoId must not be repeated more than " + maxBatchIds + " times"));
+        }
+
+        var ids = movieInfoIds.stream()
+                .map(ReviewHandler::toMovieInfoId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return ServerResponse.ok().body(reviewReactiveRepository.aggregateRatings(ids), RatingStatistics.class);
+    }
+
+    public Mono<ServerResponse> getRatingSummary(ServerRequest request) {
+        var movieInfoId = toMovieInfoId(request.pathVariable("movieInfoId"));
+
+        return ratingSummaryService.getRatingSummary(movieInfoId)
+                .switchIfEmpty(Mono.error(new ReviewNotFoundException("No rating summary for the given MovieInfo Id " + movieInfoId)))
+                .flatMap(ServerResponse.ok()::bodyValue);
+    }
+
+    public Mono<ServerResponse> rebuildRatingSummaries(ServerRequest request) {
+        return ratingSummaryService.rebuild()
+                .flatMap(count -> ServerResponse.ok().bodyValue(Map.of("ratingSummaries", count)));
+    }
+
+    public Mono<ServerResponse> updateReview(ServerRequest request) {
+        var reviewId = request.pathVariable("id");
+
+        return reviewReactiveRepository.findById(reviewId)
+                .switchIfEmpty(Mono.error(new ReviewNotFoundException("Review not found for the given Review Id " + reviewId)))
+                .flatMap(review -> request.bodyToMono(Review.class)
+                        .map(reqReview -> {
+                            review.setComment(reqReview.getComment());
+                            review.setRating(reqReview.getRating());
+                            return review;
+                        })
+                        .flatMap(reviewReactiveRepository::save)
+                        .flatMap(savedReview -> ratingSummaryService.reviewSaved(savedReview).thenReturn(savedReview))
+                        .flatMap(ServerResponse.ok()::bodyValue));
+    }
+
+    public Mono<ServerResponse> deleteReview(ServerRequest request) {
+        var reviewId = request.pathVariable("id");
+
+        return reviewReactiveRepository.findById(reviewId)
+                .switchIfEmpty(Mono.error(new ReviewNotFoundException("Review not found for the given Review Id " + reviewId)))
+                .flatMap(review -> reviewReactiveRepository.deleteById(reviewId))
+                .then(ratingSummaryService.reviewDeleted(reviewId))
+                .then(ServerResponse.noContent().build());
+    }
+
+    /*
+     * Concurrent requests for the reviews of the same movie share one query. The shared result is a list,
+     * a request joining half way through a streamed query would miss what was already emitted.
+     */
+    private Flux<Review> findReviewsByMovieInfoId(Long movieInfoId) {
+        if (movieReviewReads == null) {
+            return reviewReactiveRepository.findReviewsByMovieInfoId(movieInfoId);
+        }
+        return movieReviewReads.execute(movieInfoId,
+                        () -> reviewReactiveRepository.findReviewsByMovieInfoId(movieInfoId).collectList())
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    private static int toPageSize(String size) {
+        try {
+            return Integer.parseInt(size);
+        } catch (NumberFormatException ex) {
+            throw new ReviewDataException("size must be a number : " + size);
+        }
+    }
+
+    private static ReviewFeed.Overflow toOverflow(String overflow) {
+        try {
+            return ReviewFeed.Overflow.valueOf(overflow.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ReviewDataException("overflow must be one of " + Arrays.toString(ReviewFeed.Overflow.values()) + " : " + overflow);
+        }
+    }
+
+    private static Long toMovieInfoId(String movieInfoId) {
+        try {
+            return Long.valueOf(movieInfoId);
+        } catch (NumberFormatException ex) {
+            throw new ReviewDataException("movieInfoId must be a number : " + movieInfoId);
+        }
+    }
+
+    /*
+     * Functional endpoints do not negotiate the response type from the Accept header, the first codec
+     * that can write the body wins. Only a caller that names Smile gets it, a wildcard or a missing
+     * Accept header gets the JSON flavour.
+     */
+    private static MediaType contentType(ServerRequest request, MediaType smile, MediaType json) {
+        return request.headers().accept().stream().anyMatch(smile::equalsTypeAndSubtype) ? smile : json;
+    }
+}
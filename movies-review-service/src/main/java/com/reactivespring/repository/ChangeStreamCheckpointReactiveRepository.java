@@ -0,0 +1,7 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.ChangeStreamCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ChangeStreamCheckpointReactiveRepository extends ReactiveMongoRepository<ChangeStreamCheckpoint, String> {
+}
@@ -0,0 +1,7 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.RatingContribution;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface RatingContributionReactiveRepository extends ReactiveMongoRepository<RatingContribution, String> {
+}
@@ -0,0 +1,7 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.RatingSummary;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface RatingSummaryReactiveRepository extends ReactiveMongoRepository<RatingSummary, Long> {
+}
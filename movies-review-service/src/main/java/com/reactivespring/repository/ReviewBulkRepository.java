@@ -0,0 +1,17 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReviewBulkRepository {
+
+    /*
+     * Inserts all reviews with one unordered insertMany, a failing document does not stop the others.
+     * Emits the failures as index in the given list to error message, empty when everything was inserted.
+     * Reviews without an id get the one they were inserted with.
+     */
+    Mono<Map<Integer, String>> insertAllUnordered(List<Review> reviews);
+}
@@ -0,0 +1,60 @@
+package com.reactivespring.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reactivespring.domain.Review;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ReviewBulkRepositoryImpl implements ReviewBulkRepository {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewBulkRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    /*
+     * Goes to the driver directly because ReactiveMongoTemplate.insertAll always inserts in order and gives
+     * up on the first duplicate key.
+     */
+    @Override
+    public Mono<Map<Integer, String>> insertAllUnordered(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        var documents = new ArrayList<Document>(reviews.size());
+        for (var review : reviews) {
+            var document = new Document();
+            reactiveMongoTemplate.getConverter().write(review, document);
+            documents.add(document);
+        }
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(Review.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .<Map<Integer, String>>map(result -> Map.of())
+                // the driver puts the _id it generated into each document, hand it back like insertAll does
+                .doOnNext(failures -> assignIds(reviews, documents))
+                .onErrorResume(MongoBulkWriteException.class, ex -> {
+                    var failures = new TreeMap<Integer, String>();
+                    ex.getWriteErrors().forEach(writeError -> failures.put(writeError.getIndex(), writeError.getMessage()));
+                    assignIds(reviews, documents);
+                    return Mono.just(failures);
+                });
+    }
+
+    private static void assignIds(List<Review> reviews, List<Document> documents) {
+        for (int index = 0; index < reviews.size(); index++) {
+            var id = documents.get(index).get("_id");
+            reviews.get(index).setReviewId(id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id));
+        }
+    }
+}
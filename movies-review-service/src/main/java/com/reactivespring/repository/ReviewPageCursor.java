@@ -0,0 +1,56 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Position after the last review of a page, in (movieInfoId, _id) order. Handed to clients as an opaque
+ * url-safe token so that they cannot come to rely on what is inside.
+ */
+public class ReviewPageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Long movieInfoId;
+    private final String reviewId;
+
+    public ReviewPageCursor(Long movieInfoId, String reviewId) {
+        this.movieInfoId = movieInfoId;
+        this.reviewId = reviewId;
+    }
+
+    public static ReviewPageCursor after(Review review) {
+        return new ReviewPageCursor(review.getMovieInfoId(), review.getReviewId());
+    }
+
+    public static ReviewPageCursor decode(String token) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separator = decoded.indexOf(SEPARATOR);
+            var movieInfoId = decoded.substring(0, separator);
+            var reviewId = decoded.substring(separator + 1);
+            if (reviewId.isEmpty()) {
+                throw new IllegalArgumentException("empty reviewId");
+            }
+            return new ReviewPageCursor(movieInfoId.isEmpty() ? null : Long.valueOf(movieInfoId), reviewId);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new ReviewDataException("token is not a valid page token : " + token);
+        }
+    }
+
+    public String encode() {
+        var raw = (movieInfoId == null ? "" : movieInfoId.toString()) + SEPARATOR + reviewId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long getMovieInfoId() {
+        return movieInfoId;
+    }
+
+    public String getReviewId() {
+        return reviewId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import reactor.core.publisher.Flux;
+
+public interface ReviewPagingRepository {
+
+    /*
+     * Up to limit reviews in (movieInfoId, _id) order that come after the cursor, optionally of a single movie.
+     * A null cursor starts at the beginning.
+     */
+    Flux<Review> findReviewsPage(Long movieInfoId, ReviewPageCursor after, int limit);
+}
@@ -0,0 +1,69 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class ReviewPagingRepositoryImpl implements ReviewPagingRepository {
+
+    // BSON type number of ObjectId
+    private static final int OBJECT_ID_TYPE = 7;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewPagingRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<Review> findReviewsPage(Long movieInfoId, ReviewPageCursor after, int limit) {
+        return reactiveMongoTemplate.find(pageQuery(movieInfoId, after, limit), Review.class);
+    }
+
+    /*
+     * Keyset pagination: instead of skipping the previous pages, every page starts with an index seek
+     * right after the last review of the previous one on the movieInfoId_id index, so page 1000 costs
+     * the same as page 1.
+     */
+    static Query pageQuery(Long movieInfoId, ReviewPageCursor after, int limit) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "movieInfoId", "_id"))
+                .limit(limit);
+
+        if (movieInfoId != null) {
+            query.addCriteria(where("movieInfoId").is(movieInfoId));
+            if (after != null) {
+                query.addCriteria(idAfter(after.getReviewId()));
+            }
+        } else if (after != null) {
+            var laterMovie = after.getMovieInfoId() == null
+                    ? where("movieInfoId").ne(null)
+                    : where("movieInfoId").gt(after.getMovieInfoId());
+            var sameMovieLaterId = new Criteria().andOperator(
+                    where("movieInfoId").is(after.getMovieInfoId()),
+                    idAfter(after.getReviewId()));
+            query.addCriteria(new Criteria().orOperator(laterMovie, sameMovieLaterId));
+        }
+        return query;
+    }
+
+    /*
+     * Generated ids are ObjectIds, ids supplied by clients are plain strings, and in BSON order all
+     * strings come before all ObjectIds. A range on one type never matches the other, so after a string
+     * id the ObjectIds have to be included explicitly.
+     */
+    private static Criteria idAfter(String reviewId) {
+        if (ObjectId.isValid(reviewId)) {
+            return where("_id").gt(new ObjectId(reviewId));
+        }
+        return new Criteria().orOperator(
+                where("_id").gt(reviewId),
+                where("_id").type(OBJECT_ID_TYPE));
+    }
+}
@@ -0,0 +1,14 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.RatingStatistics;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReviewRatingsRepository {
+
+    /*
+     * Folds the ratings of the given movies on the server, one RatingStatistics per movie that has rated reviews.
+     */
+    Flux<RatingStatistics> aggregateRatings(Collection<Long> movieInfoIds);
+}
@@ -0,0 +1,64 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.RatingStatistics;
+import com.reactivespring.domain.Review;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+public class ReviewRatingsRepositoryImpl implements ReviewRatingsRepository {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReviewRatingsRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<RatingStatistics> aggregateRatings(Collection<Long> movieInfoIds) {
+        return reactiveMongoTemplate.aggregate(ratingsAggregation(movieInfoIds),
+                reactiveMongoTemplate.getCollectionName(Review.class), RatingStatistics.class);
+    }
+
+    /*
+     * The first two stages only touch movieInfoId and rating, so they are answered from the
+     * movieInfoId_rating index without loading the documents (and their comment text).
+     * Ratings are grouped per (movie, bucket) first, which gives the histogram, and then
+     * folded again per movie for count/sum/min/max.
+     */
+    static Aggregation ratingsAggregation(Collection<Long> movieInfoIds) {
+        return Aggregation.newAggregation(
+                match(Criteria.where("movieInfoId").in(movieInfoIds).and("rating").ne(null)),
+                project("movieInfoId", "rating")
+                        .andExclude("_id")
+                        .and(ArithmeticOperators.Floor.floorValueOf("rating")).as("bucket"),
+                group("movieInfoId", "bucket")
+                        .count().as("count")
+                        .sum("rating").as("sum")
+                        .min("rating").as("min")
+                        .max("rating").as("max"),
+                sort(Sort.by("_id.bucket")),
+                group("_id.movieInfoId")
+                        .sum("count").as("count")
+                        .sum("sum").as("sum")
+                        .min("min").as("min")
+                        .max("max").as("max")
+                        .push(new Document("rating", "$_id.bucket").append("count", "$count")).as("histogram"),
+                project("count", "min", "max", "histogram")
+                        .and("_id").as("movieInfoId")
+                        .and(ArithmeticOperators.Divide.valueOf("sum").divideBy("count")).as("average")
+                        .andExclude("_id"),
+                sort(Sort.by("movieInfoId")));
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReviewReactiveRepository extends ReactiveMongoRepository<Review, String>, ReviewRatingsRepository,
+        ReviewPagingRepository, ReviewBulkRepository {
+
+    Flux<Review> findReviewsByMovieInfoId(Long movieInfoId);
+
+    /*
+     * Single $in query for many movies, sorted so that the reviews of one movie arrive contiguously.
+     */
+    Flux<Review> findReviewsByMovieInfoIdIn(Collection<Long> movieInfoIds, Sort sort);
+}
@@ -0,0 +1,34 @@
+package com.reactivespring.router;
+
+import com.reactivespring.handler.ReviewHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.path;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+public class ReviewRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> reviewsRoute(ReviewHandler reviewHandler) {
+        return route()
+                .nest(path("/v1/reviews"), builder ->
+                        builder
+                                .GET("", reviewHandler::getReviews)
+                                .POST("", reviewHandler::addReview)
+                                .GET("/page", reviewHandler::getReviewsPage)
+                                .POST("/batch", reviewHandler::getReviewsBatch)
+                                .POST("/bulk", reviewHandler::bulkIngestReviews)
+                                .GET("/ratings", reviewHandler::getRatingStatistics)
+                                .GET("/summary/{movieInfoId}", reviewHandler::getRatingSummary)
+                                .POST("/summary/rebuild", reviewHandler::rebuildRatingSummaries)
+                                .GET("/stream", reviewHandler::streamReviews)
+                                .GET("/stream/{movieInfoId}", reviewHandler::streamReviews)
+                                .PUT("/{id}", reviewHandler::updateReview)
+                                .DELETE("/{id}", reviewHandler::deleteReview))
+                .build();
+    }
+}
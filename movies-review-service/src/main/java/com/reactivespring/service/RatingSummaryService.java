@@ -0,0 +1,222 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.RatingContribution;
+import com.reactivespring.domain.RatingSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.RatingContributionReactiveRepository;
+import com.reactivespring.repository.RatingSummaryReactiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.out;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/*
+ * Keeps one RatingSummary (count and sum of ratings) per movie, so reading it is a primary key lookup.
+ * Every change is applied as "retract the review's previous contribution, add the new one", which also
+ * makes replaying the same change stream event harmless.
+ *
+ * Changes come from the change stream listener when it is enabled. Without it this service's own writers
+ * report theirs, which keeps the summaries current as long as nobody else writes reviews.
+ */
+@Service
+@Slf4j
+public class RatingSummaryService {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final RatingSummaryReactiveRepository ratingSummaryReactiveRepository;
+    private final RatingContributionReactiveRepository ratingContributionReactiveRepository;
+    // false when the change stream listener sees every write anyway
+    private final boolean updateOnWrite;
+
+    private final Object gate = new Object();
+    // guarded by gate
+    private int changesInFlight;
+    // set from the moment a rebuild asks for the gate until it is done, guarded by gate
+    private Sinks.Empty<Void> rebuilding;
+    // completed by the last change in flight while a rebuild waits for it, guarded by gate
+    private Sinks.Empty<Void> drained;
+
+    public RatingSummaryService(ReactiveMongoTemplate reactiveMongoTemplate,
+                                RatingSummaryReactiveRepository ratingSummaryReactiveRepository,
+                                RatingContributionReactiveRepository ratingContributionReactiveRepository,
+                                @Value("${reviews.ratingSummary.changeStream.enabled:false}") boolean changeStream) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.ratingSummaryReactiveRepository = ratingSummaryReactiveRepository;
+        this.ratingContributionReactiveRepository = ratingContributionReactiveRepository;
+        this.updateOnWrite = !changeStream;
+    }
+
+    public Mono<RatingSummary> getRatingSummary(Long movieInfoId) {
+        return ratingSummaryReactiveRepository.findById(movieInfoId);
+    }
+
+    public Mono<Void> onReviewSaved(Review review) {
+        var contribution = RatingContribution.of(review);
+
+        return change(() -> retract(review.getReviewId())
+                .then(adjust(contribution, 1))
+                .then(ratingContributionReactiveRepository.save(contribution))
+                .then());
+    }
+
+    public Mono<Void> onReviewDeleted(String reviewId) {
+        return change(() -> retract(reviewId)
+                .then(ratingContributionReactiveRepository.deleteById(reviewId)));
+    }
+
+    /*
+     * Write path hooks, called once the review itself is written. The review is stored by then, so a
+     * failure here is only logged: the summary is off until the next rebuild, the write still succeeded.
+     */
+    public Mono<Void> reviewSaved(Review review) {
+        return updateOnWrite ? logFailure(onReviewSaved(review)) : Mono.empty();
+    }
+
+    public Mono<Void> reviewDeleted(String reviewId) {
+        return updateOnWrite ? logFailure(onReviewDeleted(reviewId)) : Mono.empty();
+    }
+
+    public Mono<Void> reviewsInserted(List<Review> reviews) {
+        return updateOnWrite ? logFailure(Flux.fromIterable(reviews).concatMap(this::onReviewSaved).then()) : Mono.empty();
+    }
+
+    /*
+     * Recovery path: recomputes every contribution from the review collection and every summary from the
+     * contributions. Both are written with $out, which builds a temporary collection and renames it over
+     * the old one, so readers see the old summaries until the new ones are complete, never an empty or
+     * half filled collection. Changes applied by this instance, from the write paths or the change stream
+     * listener, wait while this runs and land on the rebuilt summaries after it, retracting whatever the
+     * rebuild already counted.
+     */
+    public Mono<Long> rebuild() {
+        return Mono.defer(() -> {
+            var finished = Sinks.<Void>empty();
+            var drained = Sinks.<Void>empty();
+            Sinks.Empty<Void> running;
+            synchronized (gate) {
+                running = rebuilding;
+                if (running == null) {
+                    rebuilding = finished;
+                    if (changesInFlight == 0) {
+                        drained.tryEmitEmpty();
+                    } else {
+                        this.drained = drained;
+                    }
+                }
+            }
+            if (running != null) {
+                return running.asMono().then(rebuild());
+            }
+
+            return drained.asMono()
+                    .then(Mono.defer(this::replaceAll))
+                    .doOnNext(count -> log.info("Rebuilt {} rating summaries", count))
+                    .doFinally(signal -> {
+                        synchronized (gate) {
+                            rebuilding = null;
+                        }
+                        finished.tryEmitEmpty();
+                    });
+        });
+    }
+
+    private Mono<Long> replaceAll() {
+        var contributions = reactiveMongoTemplate.getCollectionName(RatingContribution.class);
+        var summaries = reactiveMongoTemplate.getCollectionName(RatingSummary.class);
+        var skipOutput = AggregationOptions.builder().skipOutput().build();
+
+        var rebuildContributions = newAggregation(
+                match(where("rating").ne(null)),
+                project("movieInfoId", "rating"),
+                out(contributions))
+                .withOptions(skipOutput);
+
+        var rebuildSummaries = newAggregation(
+                group("movieInfoId")
+                        .count().as("count")
+                        .sum("rating").as("sum"),
+                out(summaries))
+                .withOptions(skipOutput);
+
+        return reactiveMongoTemplate.aggregate(rebuildContributions, reactiveMongoTemplate.getCollectionName(Review.class), Document.class)
+                .thenMany(reactiveMongoTemplate.aggregate(rebuildSummaries, contributions, Document.class))
+                .then(reactiveMongoTemplate.count(new Query(), summaries));
+    }
+
+    /*
+     * Changes share the gate with each other, a rebuild waits for those in flight and holds it alone.
+     */
+    private Mono<Void> change(Supplier<Mono<Void>> change) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> running;
+            synchronized (gate) {
+                running = rebuilding;
+                if (running == null) {
+                    changesInFlight++;
+                }
+            }
+            if (running != null) {
+                return running.asMono().then(change(change));
+            }
+            return Mono.defer(change).doFinally(signal -> changeDone());
+        });
+    }
+
+    private void changeDone() {
+        Sinks.Empty<Void> waiting = null;
+        synchronized (gate) {
+            if (--changesInFlight == 0) {
+                waiting = drained;
+                drained = null;
+            }
+        }
+        if (waiting != null) {
+            waiting.tryEmitEmpty();
+        }
+    }
+
+    private static Mono<Void> logFailure(Mono<Void> update) {
+        return update.onErrorResume(ex -> {
+            log.error("Rating summary update failed, summaries need a rebuild", ex);
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> retract(String reviewId) {
+        return ratingContributionReactiveRepository.findById(reviewId)
+                .flatMap(previous -> adjust(previous, -1));
+    }
+
+    private Mono<Void> adjust(RatingContribution contribution, int sign) {
+        if (contribution.getMovieInfoId() == null || contribution.getRating() == null) {
+            return Mono.empty();
+        }
+
+        return reactiveMongoTemplate.upsert(
+                        query(where("movieInfoId").is(contribution.getMovieInfoId())),
+                        new Update()
+                                .inc("count", sign)
+                                .inc("sum", sign * contribution.getRating()),
+                        RatingSummary.class)
+                .then();
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.reactivespring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBatchResult;
+import com.reactivespring.domain.ReviewLineError;
+import com.reactivespring.exception.ReviewDataException;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.util.Batches;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+ * Backfill path for reviews: lines are parsed and validated one by one, collected into batches of up to
+ * batchSize lines (or whatever arrived within window) and each batch is written with one unordered
+ * insertMany. A bad line is reported in the result of its batch and does not stop the import.
+ * Inserted reviews go to the live ReviewFeed like the ones added one by one.
+ */
+@Service
+@Slf4j
+public class ReviewBulkIngestService {
+
+    private final ReviewReactiveRepository reviewReactiveRepository;
+    private final RatingSummaryService ratingSummaryService;
+    private final ReviewFeed reviewFeed;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final Duration window;
+    private final int concurrency;
+
+    public ReviewBulkIngestService(ReviewReactiveRepository reviewReactiveRepository,
+                                   RatingSummaryService ratingSummaryService,
+                                   ReviewFeed reviewFeed,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   @Value("${reviews.bulk.batchSize:1000}") int batchSize,
+                                   @Value("${reviews.bulk.window:100ms}") Duration window,
+                                   @Value("${reviews.bulk.concurrency:4}") int concurrency) {
+        this.reviewReactiveRepository = reviewReactiveRepository;
+        this.ratingSummaryService = ratingSummaryService;
+        this.reviewFeed = reviewFeed;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.window = window;
+        this.concurrency = concurrency;
+    }
+
+    public Flux<ReviewBatchResult> ingest(Flux<String> lines) {
+        var batchNumber = new AtomicLong();
+
+        var parsedLines = lines
+                .index((index, line) -> new ParsedLine(index + 1, line))
+                .filter(parsedLine -> !parsedLine.line.isBlank())
+                .map(this::parse);
+
+        // lines are only read from the request as batches are written, never more than a few batches ahead
+        return Batches.of(parsedLines, batchSize, window)
+                // batches are written concurrently but reported in the order they were cut
+                .flatMapSequential(batch -> insert(batchNumber.incrementAndGet(), batch), concurrency);
+    }
+
+    private ParsedLine parse(ParsedLine parsedLine) {
+        try {
+            var review = objectMapper.readValue(parsedLine.line, Review.class);
+            var violations = validator.validate(review);
+            if (!violations.isEmpty()) {
+                throw new ReviewDataException(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+            parsedLine.review = review;
+        } catch (JsonProcessingException ex) {
+            parsedLine.error = new ReviewDataException("not a valid review : " + ex.getOriginalMessage());
+        } catch (ReviewDataException ex) {
+            parsedLine.error = ex;
+        }
+        return parsedLine;
+    }
+
+    private Mono<ReviewBatchResult> insert(long batch, List<ParsedLine> parsedLines) {
+        var errors = new ArrayList<ReviewLineError>();
+        var valid = new ArrayList<ParsedLine>(parsedLines.size());
+        for (var parsedLine : parsedLines) {
+            if (parsedLine.error != null) {
+                errors.add(new ReviewLineError(parsedLine.number, parsedLine.error.getMessage()));
+            } else {
+                valid.add(parsedLine);
+            }
+        }
+        var reviews = valid.stream().map(parsedLine -> parsedLine.review).collect(Collectors.toList());
+
+        return reviewReactiveRepository.insertAllUnordered(reviews)
+                .flatMap(failures -> {
+                    var inserted = inserted(reviews, failures);
+                    return ratingSummaryService.reviewsInserted(inserted)
+                            .doOnSuccess(done -> inserted.forEach(reviewFeed::publish))
+                            .thenReturn(failures);
+                })
+                .map(failures -> {
+                    failures.forEach((index, message) -> errors.add(new ReviewLineError(valid.get(index).number, message)));
+                    errors.sort((left, right) -> Long.compare(left.getLine(), right.getLine()));
+                    log.debug("Review batch {} : {} lines, {} inserted", batch, parsedLines.size(), reviews.size() - failures.size());
+                    return new ReviewBatchResult(batch, parsedLines.size(), reviews.size() - failures.size(), errors);
+                });
+    }
+
+    private static List<Review> inserted(List<Review> reviews, Map<Integer, String> failures) {
+        if (failures.isEmpty()) {
+            return reviews;
+        }
+        var inserted = new ArrayList<Review>(reviews.size() - failures.size());
+        for (int index = 0; index < reviews.size(); index++) {
+            if (!failures.containsKey(index)) {
+                inserted.add(reviews.get(index));
+            }
+        }
+        return inserted;
+    }
+
+    private static final class ParsedLine {
+
+        private final long number;
+        private final String line;
+        private Review review;
+        private ReviewDataException error;
+
+        private ParsedLine(long number, String line) {
+            this.number = number;
+            this.line = line;
+        }
+    }
+}
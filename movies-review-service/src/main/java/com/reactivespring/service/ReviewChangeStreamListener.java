@@ -0,0 +1,141 @@
+package com.reactivespring.service;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import com.reactivespring.domain.ChangeStreamCheckpoint;
+import com.reactivespring.domain.RatingContribution;
+import com.reactivespring.domain.RatingSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ChangeStreamCheckpointReactiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+
+/*
+ * Feeds RatingSummaryService from a change stream on the review collection, so every writer of reviews
+ * (not only this service) keeps the summaries up to date. Each event is applied together with its
+ * resume token in one transaction, and on restart we resume right after the last applied event.
+ * Change streams and transactions need a replica set, hence the switch to turn this off.
+ */
+@Component
+@ConditionalOnProperty(name = "reviews.ratingSummary.changeStream.enabled", havingValue = "true")
+@Slf4j
+public class ReviewChangeStreamListener {
+
+    private static final String CHECKPOINT_ID = "review-rating-summary";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final RatingSummaryService ratingSummaryService;
+    private final ChangeStreamCheckpointReactiveRepository checkpointRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    private Disposable subscription;
+
+    public ReviewChangeStreamListener(ReactiveMongoTemplate reactiveMongoTemplate,
+                                      RatingSummaryService ratingSummaryService,
+                                      ChangeStreamCheckpointReactiveRepository checkpointRepository,
+                                      ReactiveMongoTransactionManager reactiveMongoTransactionManager) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.ratingSummaryService = ratingSummaryService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionalOperator = TransactionalOperator.create(reactiveMongoTransactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = Flux.just(RatingSummary.class, RatingContribution.class, ChangeStreamCheckpoint.class)
+                .concatMap(this::createCollectionIfMissing)
+                .then(checkpointRepository.findById(CHECKPOINT_ID))
+                .map(checkpoint -> Optional.of(BsonDocument.parse(checkpoint.getResumeToken())))
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(this::listen)
+                .doOnError(ex -> log.error("Review change stream failed, resuming from the last checkpoint", ex))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    // collections cannot be created implicitly inside a transaction on older servers
+    private Mono<Void> createCollectionIfMissing(Class<?> entityClass) {
+        return reactiveMongoTemplate.collectionExists(entityClass)
+                .filter(exists -> !exists)
+                .flatMap(missing -> reactiveMongoTemplate.createCollection(entityClass))
+                .then();
+    }
+
+    private Flux<Void> listen(Optional<BsonDocument> resumeToken) {
+        var options = ChangeStreamOptions.builder()
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        resumeToken.ifPresent(options::resumeAfter);
+
+        return reactiveMongoTemplate
+                .changeStream(reactiveMongoTemplate.getCollectionName(Review.class), options.build(), Review.class)
+                .concatMap(event -> apply(event)
+                        .then(checkpoint(event))
+                        .as(transactionalOperator::transactional));
+    }
+
+    private Mono<Void> apply(ChangeStreamEvent<Review> event) {
+        var operationType = event.getOperationType();
+        if (operationType == null) {
+            return Mono.empty();
+        }
+
+        switch (operationType) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                // the looked up document is null when it was deleted before we got to it, the delete event follows
+                return Optional.ofNullable(event.getBody())
+                        .map(ratingSummaryService::onReviewSaved)
+                        .orElseGet(Mono::empty);
+            case DELETE:
+                return Optional.ofNullable(event.getRaw())
+                        .map(raw -> raw.getDocumentKey())
+                        .map(documentKey -> documentKey.get("_id"))
+                        .map(ReviewChangeStreamListener::toReviewId)
+                        .map(ratingSummaryService::onReviewDeleted)
+                        .orElseGet(Mono::empty);
+            default:
+                log.warn("Review collection received {}, rating summaries need a rebuild", operationType);
+                return Mono.empty();
+        }
+    }
+
+    private Mono<Void> checkpoint(ChangeStreamEvent<Review> event) {
+        var resumeToken = event.getResumeToken();
+        if (resumeToken == null) {
+            return Mono.empty();
+        }
+
+        return checkpointRepository.save(new ChangeStreamCheckpoint(CHECKPOINT_ID, resumeToken.asDocument().toJson()))
+                .then();
+    }
+
+    private static String toReviewId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,130 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.Review;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * In-process feed of newly added reviews. The multicast sink is best effort: it never waits for a
+ * subscriber, every subscriber has its own bounded buffer and its own answer to "the buffer is full",
+ * so one slow SSE client only ever loses its own events and cannot stall the others or the writers.
+ */
+@Component
+public class ReviewFeed {
+
+    public enum Overflow {
+        // keep the newest events, drop the oldest buffered ones
+        DROP_OLDEST,
+        // only the most recent event is kept for a subscriber that is behind
+        LATEST,
+        // a subscriber that falls bufferSize events behind is disconnected
+        ERROR
+    }
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final Sinks.Many<Review> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final AtomicLong queued = new AtomicLong();
+    private final Map<Overflow, AtomicLong> dropped = new EnumMap<>(Overflow.class);
+    private final Map<Overflow, Counter> droppedCounters = new EnumMap<>(Overflow.class);
+
+    public ReviewFeed(ObjectProvider<MeterRegistry> meterRegistry,
+                      @Value("${reviews.stream.bufferSize:256}") int bufferSize) {
+        this.bufferSize = bufferSize;
+        for (var overflow : Overflow.values()) {
+            dropped.put(overflow, new AtomicLong());
+        }
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("reviews.stream.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                    .description("Subscribers of the live review feed")
+                    .register(registry);
+            Gauge.builder("reviews.stream.queued", queued, AtomicLong::get)
+                    .description("Reviews buffered for subscribers that are behind, over all subscribers")
+                    .register(registry);
+            for (var overflow : Overflow.values()) {
+                droppedCounters.put(overflow, Counter.builder("reviews.stream.dropped")
+                        .description("Reviews a subscriber did not get because its buffer was full")
+                        .tag("overflow", overflow.name())
+                        .register(registry));
+            }
+        });
+    }
+
+    public void publish(Review review) {
+        sink.emitNext(review, RETRY_NON_SERIALIZED);
+    }
+
+    /*
+     * A null movieInfoId subscribes to the reviews of every movie.
+     */
+    public Flux<Review> subscribe(Long movieInfoId, Overflow overflow) {
+        return Flux.defer(() -> {
+            var subscriberQueued = new AtomicLong();
+            var reviews = sink.asFlux()
+                    .filter(review -> movieInfoId == null || movieInfoId.equals(review.getMovieInfoId()))
+                    .doOnNext(review -> {
+                        subscriberQueued.incrementAndGet();
+                        queued.incrementAndGet();
+                    });
+
+            return withOverflow(reviews, overflow, subscriberQueued)
+                    .doOnNext(review -> {
+                        subscriberQueued.decrementAndGet();
+                        queued.decrementAndGet();
+                    })
+                    // whatever this subscriber still had buffered is gone with it
+                    .doFinally(signalType -> queued.addAndGet(-subscriberQueued.getAndSet(0)));
+        });
+    }
+
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    public long droppedCount(Overflow overflow) {
+        return dropped.get(overflow).get();
+    }
+
+    public long queuedCount() {
+        return queued.get();
+    }
+
+    private Flux<Review> withOverflow(Flux<Review> reviews, Overflow overflow, AtomicLong subscriberQueued) {
+        switch (overflow) {
+            case LATEST:
+                return reviews.onBackpressureBuffer(1,
+                        review -> onDropped(overflow, subscriberQueued), BufferOverflowStrategy.DROP_OLDEST);
+            case ERROR:
+                return reviews.onBackpressureBuffer(bufferSize,
+                        review -> onDropped(overflow, subscriberQueued));
+            case DROP_OLDEST:
+            default:
+                return reviews.onBackpressureBuffer(bufferSize,
+                        review -> onDropped(overflow, subscriberQueued), BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+    private void onDropped(Overflow overflow, AtomicLong subscriberQueued) {
+        subscriberQueued.decrementAndGet();
+        queued.decrementAndGet();
+        dropped.get(overflow).incrementAndGet();
+        var counter = droppedCounters.get(overflow);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -1,4 +1,344 @@
 package com.reactivespring.routes;
 
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.RatingBucket;
+import com.reactivespring.domain.RatingStatistics;
+import com.reactivespring.domain.RatingSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBatchResult;
+import com.reactivespring.domain.ReviewLineError;
+import com.reactivespring.domain.ReviewPage;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.service.RatingSummaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@TestPropertySource(properties = "reviews.ratingSummary.changeStream.enabled=false")
 public class ReviewsIntgTest {
+
+    static String REVIEWS_URL = "/v1/reviews";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired
+    RatingSummaryService ratingSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        var reviewsList = List.of(
+                new Review(null, 1L, "Awesome Movie", 9.0),
+                new Review(null, 1L, "Awesome Movie1", 9.0),
+                new Review("abc", 2L, "Excellent Movie", 8.0));
+
+        reviewReactiveRepository.saveAll(reviewsList)
+                .blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewReactiveRepository.deleteAll()
+                .block();
+    }
+
+    @Test
+    void addReview() {
+        // given
+        var review = new Review(null, 3L, "Awesome Movie", 9.0);
+
+        // when & then
+        webTestClient.post().uri(REVIEWS_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .consumeWith(reviewEntityExchangeResult -> {
+                    var savedReview = reviewEntityExchangeResult.getResponseBody();
+                    assert savedReview != null;
+                    assert savedReview.getReviewId() != null;
+                });
+    }
+
+    @Test
+    void getReviewsByMovieInfoId() {
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "?movieInfoId=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Review.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void getReviewsPage_walksAllReviewsInKeysetOrder() {
+        // given
+        reviewReactiveRepository.saveAll(List.of(
+                new Review("aaa", 2L, "Good Movie", 7.0),
+                new Review(null, 2L, "Great Movie", 8.5)))
+                .blockLast();
+        var seen = new ArrayList<Review>();
+        String token = null;
+
+        // when
+        do {
+            var uri = REVIEWS_URL + "/page?size=2" + (token == null ? "" : "&token=" + token);
+            var page = webTestClient.get().uri(uri)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(ReviewPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            assert page != null;
+            seen.addAll(page.getReviews());
+            token = page.getNextToken();
+        } while (token != null);
+
+        // then : every review exactly once, movie 1 first, and within movie 2 the string ids before the ObjectIds
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().map(Review::getReviewId).distinct().count());
+        assertEquals(List.of(1L, 1L, 2L, 2L, 2L), seen.stream().map(Review::getMovieInfoId).collect(Collectors.toList()));
+        assertEquals(List.of("aaa", "abc"), List.of(seen.get(2).getReviewId(), seen.get(3).getReviewId()));
+    }
+
+    @Test
+    void getReviewsPage_byMovieInfoId() {
+        // when
+        var firstPage = webTestClient.get().uri(REVIEWS_URL + "/page?movieInfoId=1&size=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewPage.class)
+                .returnResult()
+                .getResponseBody();
+        assert firstPage != null;
+        var secondPage = webTestClient.get().uri(REVIEWS_URL + "/page?movieInfoId=1&size=1&token=" + firstPage.getNextToken())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewPage.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assert secondPage != null;
+        assertEquals(1, secondPage.getReviews().size());
+        assertNotEquals(firstPage.getReviews().get(0).getReviewId(), secondPage.getReviews().get(0).getReviewId());
+        assertNull(secondPage.getNextToken());
+    }
+
+    @Test
+    void bulkIngestReviews() {
+        // given
+        var reviews = 20_000;
+        var body = IntStream.range(0, reviews)
+                .mapToObj(i -> "{\"movieInfoId\":" + (100 + i % 50) + ", \"comment\":\"Review " + i + "\", \"rating\":" + (i % 10) + "}")
+                .collect(Collectors.joining("\n"));
+
+        // when
+        var results = webTestClient.post().uri(REVIEWS_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body + "\n{\"comment\":\"no movie\"}")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(ReviewBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assert results != null;
+        assertEquals(reviews, results.stream().mapToInt(ReviewBatchResult::getInserted).sum());
+        assertEquals(List.of(reviews + 1L), results.stream()
+                .flatMap(result -> result.getErrors().stream())
+                .map(ReviewLineError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(reviews + 3L, reviewReactiveRepository.count().block());
+    }
+
+    @Test
+    void getReviewsBatch() {
+        // when & then
+        webTestClient.post().uri(REVIEWS_URL + "/batch")
+                .bodyValue(List.of(2L, 1L, 99L))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieReviews.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    var movieReviews = listEntityExchangeResult.getResponseBody();
+                    assert movieReviews != null;
+                    assertEquals(2, movieReviews.size());
+                    assertEquals(1L, movieReviews.get(0).getMovieInfoId());
+                    assertEquals(2, movieReviews.get(0).getReviewList().size());
+                    assertEquals(2L, movieReviews.get(1).getMovieInfoId());
+                });
+    }
+
+    @Test
+    void getRatingStatistics() {
+        // given
+        reviewReactiveRepository.save(new Review(null, 1L, "Good Movie", 7.5))
+                .block();
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/ratings?movieInfoId=1&movieInfoId=2")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(RatingStatistics.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    var ratingStatistics = listEntityExchangeResult.getResponseBody();
+                    assert ratingStatistics != null;
+                    assertEquals(2, ratingStatistics.size());
+
+                    var movie1 = ratingStatistics.get(0);
+                    assertEquals(1L, movie1.getMovieInfoId());
+                    assertEquals(3L, movie1.getCount());
+                    assertEquals(8.5, movie1.getAverage());
+                    assertEquals(7.5, movie1.getMin());
+                    assertEquals(9.0, movie1.getMax());
+                    assertEquals(List.of(new RatingBucket(7, 1L), new RatingBucket(9, 2L)), movie1.getHistogram());
+
+                    assertEquals(2L, ratingStatistics.get(1).getMovieInfoId());
+                    assertEquals(1L, ratingStatistics.get(1).getCount());
+                });
+    }
+
+    @Test
+    void rebuildRatingSummaries() {
+        // when
+        webTestClient.post().uri(REVIEWS_URL + "/summary/rebuild")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.ratingSummaries").isEqualTo(2);
+
+        // then
+        webTestClient.get().uri(REVIEWS_URL + "/summary/{movieInfoId}", 1)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(RatingSummary.class)
+                .consumeWith(summaryEntityExchangeResult -> {
+                    var ratingSummary = summaryEntityExchangeResult.getResponseBody();
+                    assert ratingSummary != null;
+                    assertEquals(2L, ratingSummary.getCount());
+                    assertEquals(18.0, ratingSummary.getSum());
+                });
+    }
+
+    @Test
+    void ratingSummary_isAdjustedIncrementally() {
+        // given
+        ratingSummaryService.rebuild().block();
+        var review = reviewReactiveRepository.findById("abc").block();
+        assert review != null;
+
+        // when
+        review.setRating(6.0);
+        ratingSummaryService.onReviewSaved(review)
+                .then(ratingSummaryService.onReviewSaved(review)) // replayed event
+                .then(ratingSummaryService.onReviewSaved(new Review("def", 2L, "Good Movie", 7.0)))
+                .then(ratingSummaryService.onReviewDeleted("def"))
+                .then(ratingSummaryService.onReviewDeleted("def"))
+                .block();
+
+        // then
+        var ratingSummary = ratingSummaryService.getRatingSummary(2L).block();
+        assert ratingSummary != null;
+        assertEquals(1L, ratingSummary.getCount());
+        assertEquals(6.0, ratingSummary.getSum());
+    }
+
+    @Test
+    void ratingSummary_followsTheWritesOfThisService() {
+        // given
+        ratingSummaryService.rebuild().block();
+
+        // when
+        var added = webTestClient.post().uri(REVIEWS_URL)
+                .bodyValue(new Review(null, 2L, "Good Movie", 7.0))
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .returnResult()
+                .getResponseBody();
+        assert added != null;
+        webTestClient.put().uri(REVIEWS_URL + "/{id}", "abc")
+                .bodyValue(new Review(null, 2L, "Not an Awesome Movie", 6.0))
+                .exchange()
+                .expectStatus()
+                .isOk();
+        webTestClient.post().uri(REVIEWS_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"movieInfoId\":2, \"comment\":\"Fine Movie\", \"rating\":5.0}")
+                .exchange()
+                .expectStatus()
+                .isOk();
+        webTestClient.delete().uri(REVIEWS_URL + "/{id}", added.getReviewId())
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+
+        // then : abc at 6.0 and the bulk imported review at 5.0
+        var ratingSummary = ratingSummaryService.getRatingSummary(2L).block();
+        assert ratingSummary != null;
+        assertEquals(2L, ratingSummary.getCount());
+        assertEquals(11.0, ratingSummary.getSum());
+    }
+
+    @Test
+    void updateReview() {
+        // given
+        var review = new Review(null, 2L, "Not an Awesome Movie", 8.5);
+
+        // when & then
+        webTestClient.put().uri(REVIEWS_URL + "/{id}", "abc")
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Review.class)
+                .consumeWith(reviewEntityExchangeResult -> {
+                    var updatedReview = reviewEntityExchangeResult.getResponseBody();
+                    assert updatedReview != null;
+                    assertEquals(8.5, updatedReview.getRating());
+                    assertEquals("Not an Awesome Movie", updatedReview.getComment());
+                });
+    }
+
+    @Test
+    void deleteReview() {
+        // when & then
+        webTestClient.delete().uri(REVIEWS_URL + "/{id}", "abc")
+                .exchange()
+                .expectStatus()
+                .isNoContent();
+    }
 }
@@ -0,0 +1,24 @@
+package com.reactivespring.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsConfigTest {
+
+    @Test
+    void uriTag() {
+        assertEquals("/v1/reviews", MetricsConfig.uriTag("/v1/reviews?movieInfoId=1"));
+        assertEquals("/v1/reviews/page", MetricsConfig.uriTag("/v1/reviews/page?size=10"));
+        assertEquals("/v1/reviews/summary/rebuild", MetricsConfig.uriTag("/v1/reviews/summary/rebuild"));
+        assertEquals("/v1/reviews/summary/{movieInfoId}", MetricsConfig.uriTag("/v1/reviews/summary/42"));
+        assertEquals("/v1/reviews/stream/{movieInfoId}", MetricsConfig.uriTag("/v1/reviews/stream/42?overflow=LATEST"));
+        assertEquals("/v1/reviews/{id}", MetricsConfig.uriTag("/v1/reviews/61a7c0e2f1b2c3d4e5f60718"));
+    }
+
+    @Test
+    void uriTag_unknownPathsShareOneTag() {
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/v1/reviews/stream/42/extra"));
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/.env"));
+    }
+}
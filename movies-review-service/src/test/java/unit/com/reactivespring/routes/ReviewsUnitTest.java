@@ -1,4 +1,430 @@
 package com.reactivespring.routes;
 
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.RatingBucket;
+import com.reactivespring.domain.RatingStatistics;
+import com.reactivespring.domain.RatingSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewBatchResult;
+import com.reactivespring.domain.ReviewLineError;
+import com.reactivespring.domain.ReviewPage;
+import com.reactivespring.exceptionhandler.GlobalErrorHandler;
+import com.reactivespring.handler.ReviewHandler;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.router.ReviewRouter;
+import com.reactivespring.service.RatingSummaryService;
+import com.reactivespring.service.ReviewBulkIngestService;
+import com.reactivespring.service.ReviewFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest
+@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, ReviewFeed.class, ReviewBulkIngestService.class,
+        GlobalErrorHandler.class, CodecConfig.class})
+@AutoConfigureWebTestClient
 public class ReviewsUnitTest {
+
+    static String REVIEWS_URL = "/v1/reviews";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    ReviewReactiveRepository reviewReactiveRepository;
+
+    @MockBean
+    RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    ReviewFeed reviewFeed;
+
+    @Test
+    void addReview() {
+        // given
+        var review = new Review(null, 1L, "Awesome Movie", 9.0);
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenReturn(Mono.just(new Review("abc", 1L, "Awesome Movie", 9.0)));
+        when(ratingSummaryService.reviewSaved(isA(Review.class))).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.post().uri(REVIEWS_URL)
+                .bodyValue(review)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(Review.class)
+                .consumeWith(reviewEntityExchangeResult -> {
+                    var savedReview = reviewEntityExchangeResult.getResponseBody();
+                    assert savedReview != null;
+                    assertEquals("abc", savedReview.getReviewId());
+                });
+        verify(ratingSummaryService).reviewSaved(argThat(savedReview -> "abc".equals(savedReview.getReviewId())));
+    }
+
+    @Test
+    void getReviewsByMovieInfoId() {
+        // given
+        when(reviewReactiveRepository.findReviewsByMovieInfoId(1L)).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0)));
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "?movieInfoId=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Review.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void getReviewsByMovieInfoId_smile() {
+        // given
+        when(reviewReactiveRepository.findReviewsByMovieInfoId(1L)).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0)));
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "?movieInfoId=1")
+                .accept(CodecConfig.APPLICATION_SMILE)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(CodecConfig.APPLICATION_SMILE)
+                .expectBodyList(Review.class)
+                .contains(new Review("1", 1L, "Awesome Movie", 9.0), new Review("2", 1L, "Excellent Movie", 8.0));
+    }
+
+    @Test
+    void getReviewsByMovieInfoId_jsonByDefault() {
+        // given
+        when(reviewReactiveRepository.findReviewsByMovieInfoId(1L)).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0)));
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "?movieInfoId=1")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void getReviewsByMovieInfoId_notANumber() {
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "?movieInfoId=abc")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getReviewsBatch() {
+        // given
+        when(reviewReactiveRepository.findReviewsByMovieInfoIdIn(anyCollection(), any(Sort.class))).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0),
+                new Review("3", 2L, "Good Movie", 7.0)));
+
+        // when & then
+        webTestClient.post().uri(REVIEWS_URL + "/batch")
+                .bodyValue(List.of(1L, 2L, 3L))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(MovieReviews.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    var movieReviews = listEntityExchangeResult.getResponseBody();
+                    assert movieReviews != null;
+                    assertEquals(2, movieReviews.size());
+                    assertEquals(1L, movieReviews.get(0).getMovieInfoId());
+                    assertEquals(2, movieReviews.get(0).getReviewList().size());
+                    assertEquals(2L, movieReviews.get(1).getMovieInfoId());
+                    assertEquals(1, movieReviews.get(1).getReviewList().size());
+                });
+    }
+
+    @Test
+    void getReviewsBatch_smileStream() {
+        // given
+        when(reviewReactiveRepository.findReviewsByMovieInfoIdIn(anyCollection(), any(Sort.class))).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0),
+                new Review("3", 2L, "Good Movie", 7.0)));
+
+        // when
+        var movieReviews = webTestClient.post().uri(REVIEWS_URL + "/batch")
+                .accept(CodecConfig.APPLICATION_STREAM_SMILE, MediaType.APPLICATION_NDJSON)
+                .bodyValue(List.of(1L, 2L))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(CodecConfig.APPLICATION_STREAM_SMILE)
+                .returnResult(MovieReviews.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(movieReviews)
+                .assertNext(reviews -> assertEquals(2, reviews.getReviewList().size()))
+                .assertNext(reviews -> assertEquals(new Review("3", 2L, "Good Movie", 7.0), reviews.getReviewList().get(0)))
+                .verifyComplete();
+    }
+
+    @Test
+    void getReviewsBatch_empty() {
+        // when & then
+        webTestClient.post().uri(REVIEWS_URL + "/batch")
+                .bodyValue(List.of())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void updateReview_notFound() {
+        // given
+        when(reviewReactiveRepository.findById("abc")).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.put().uri(REVIEWS_URL + "/{id}", "abc")
+                .bodyValue(new Review(null, 1L, "Not an Awesome Movie", 8.0))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void getRatingStatistics() {
+        // given
+        when(reviewReactiveRepository.aggregateRatings(anyCollection())).thenReturn(Flux.just(
+                new RatingStatistics(1L, 2L, 8.5, 8.0, 9.0,
+                        List.of(new RatingBucket(8, 1L), new RatingBucket(9, 1L)))));
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/ratings?movieInfoId=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(RatingStatistics.class)
+                .consumeWith(listEntityExchangeResult -> {
+                    var ratingStatistics = listEntityExchangeResult.getResponseBody();
+                    assert ratingStatistics != null;
+                    assertEquals(1, ratingStatistics.size());
+                    assertEquals(8.5, ratingStatistics.get(0).getAverage());
+                    assertEquals(2, ratingStatistics.get(0).getHistogram().size());
+                });
+    }
+
+    @Test
+    void getRatingStatistics_missingMovieInfoId() {
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/ratings")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getRatingSummary() {
+        // given
+        when(ratingSummaryService.getRatingSummary(1L)).thenReturn(Mono.just(new RatingSummary(1L, 2L, 17.0)));
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/summary/{movieInfoId}", 1)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(2)
+                .jsonPath("$.average").isEqualTo(8.5);
+    }
+
+    @Test
+    void getRatingSummary_notFound() {
+        // given
+        when(ratingSummaryService.getRatingSummary(1L)).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/summary/{movieInfoId}", 1)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void streamReviews() {
+        // given : the response is only committed with its first event, so keep publishing until someone listens
+        var publisher = Flux.interval(Duration.ofMillis(50))
+                .subscribe(tick -> {
+                    reviewFeed.publish(new Review("1", 2L, "Excellent Movie", 8.0));
+                    reviewFeed.publish(new Review("2", 1L, "Awesome Movie", 9.0));
+                });
+
+        // when
+        var reviewsFlux = webTestClient.get().uri(REVIEWS_URL + "/stream/{movieInfoId}", 1)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Review.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(reviewsFlux)
+                .expectNextMatches(review -> "2".equals(review.getReviewId()))
+                .thenCancel()
+                .verify();
+        publisher.dispose();
+    }
+
+    @Test
+    void streamReviews_invalidOverflow() {
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/stream/{movieInfoId}?overflow=block", 1)
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("overflow must be one of [DROP_OLDEST, LATEST, ERROR] : block");
+    }
+
+    @Test
+    void getReviewsPage() {
+        // given
+        when(reviewReactiveRepository.findReviewsPage(eq(1L), isNull(), eq(3))).thenReturn(Flux.just(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0),
+                new Review("3", 1L, "Good Movie", 7.0)));
+        when(reviewReactiveRepository.findReviewsPage(eq(1L), argThat(cursor -> cursor != null
+                && "2".equals(cursor.getReviewId()) && cursor.getMovieInfoId() == 1L), eq(3)))
+                .thenReturn(Flux.just(new Review("3", 1L, "Good Movie", 7.0)));
+
+        // when
+        var firstPage = webTestClient.get().uri(REVIEWS_URL + "/page?movieInfoId=1&size=2")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewPage.class)
+                .returnResult()
+                .getResponseBody();
+        assert firstPage != null;
+        var secondPage = webTestClient.get().uri(REVIEWS_URL + "/page?movieInfoId=1&size=2&token=" + firstPage.getNextToken())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ReviewPage.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assertEquals(2, firstPage.getReviews().size());
+        assert secondPage != null;
+        assertEquals("3", secondPage.getReviews().get(0).getReviewId());
+        assertNull(secondPage.getNextToken());
+    }
+
+    @Test
+    void getReviewsPage_invalidToken() {
+        // when & then
+        webTestClient.get().uri(REVIEWS_URL + "/page?token=not-a-token")
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(String.class)
+                .isEqualTo("token is not a valid page token : not-a-token");
+    }
+
+    @Test
+    void bulkIngestReviews() {
+        // given
+        when(reviewReactiveRepository.insertAllUnordered(anyList())).thenAnswer(invocation -> {
+            List<Review> reviews = invocation.getArgument(0);
+            return Mono.just(reviews.size() > 1 ? Map.of(1, "E11000 duplicate key error") : Map.of());
+        });
+        when(ratingSummaryService.reviewsInserted(anyList())).thenReturn(Mono.empty());
+        var body = String.join("\n",
+                "{\"reviewId\":\"1\", \"movieInfoId\":1, \"comment\":\"Awesome Movie\", \"rating\":9.0}",
+                "{\"reviewId\":\"2\", \"movieInfoId\":1, \"comment\":\"Excellent Movie\", \"rating\":-1.0}",
+                "not json",
+                "",
+                "{\"reviewId\":\"1\", \"movieInfoId\":1, \"comment\":\"Awesome Movie\", \"rating\":9.0}");
+
+        // when
+        var results = webTestClient.post().uri(REVIEWS_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(ReviewBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assert results != null;
+        assertEquals(1, results.size());
+        var result = results.get(0);
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getInserted());
+        assertEquals(List.of(2L, 3L, 5L), result.getErrors().stream().map(ReviewLineError::getLine).collect(Collectors.toList()));
+        assertEquals("rating.negative : please pass a non-negative value", result.getErrors().get(0).getMessage());
+        assertEquals("E11000 duplicate key error", result.getErrors().get(2).getMessage());
+        verify(ratingSummaryService).reviewsInserted(argThat(reviews -> reviews.size() == 1 && "1".equals(reviews.get(0).getReviewId())));
+    }
+
+    @Test
+    void bulkIngestReviews_publishesInsertedReviews() {
+        // given
+        when(reviewReactiveRepository.insertAllUnordered(anyList())).thenReturn(Mono.just(Map.of(1, "E11000 duplicate key error")));
+        when(ratingSummaryService.reviewsInserted(anyList())).thenReturn(Mono.empty());
+        var body = String.join("\n",
+                "{\"reviewId\":\"1\", \"movieInfoId\":1, \"comment\":\"Awesome Movie\", \"rating\":9.0}",
+                "{\"reviewId\":\"1\", \"movieInfoId\":1, \"comment\":\"Awesome Movie\", \"rating\":9.0}");
+
+        // when & then
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.DROP_OLDEST))
+                .then(() -> webTestClient.post().uri(REVIEWS_URL + "/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .bodyValue(body)
+                        .exchange()
+                        .expectStatus()
+                        .isOk()
+                        .expectBodyList(ReviewBatchResult.class)
+                        .hasSize(1))
+                .expectNextMatches(review -> "1".equals(review.getReviewId()))
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify();
+    }
 }
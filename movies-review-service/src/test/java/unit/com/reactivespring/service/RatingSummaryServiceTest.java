@@ -0,0 +1,94 @@
+package com.reactivespring.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.reactivespring.domain.RatingContribution;
+import com.reactivespring.domain.RatingSummary;
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.RatingContributionReactiveRepository;
+import com.reactivespring.repository.RatingSummaryReactiveRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingSummaryServiceTest {
+
+    ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    RatingContributionReactiveRepository ratingContributionReactiveRepository = mock(RatingContributionReactiveRepository.class);
+
+    RatingSummaryService ratingSummaryService = new RatingSummaryService(reactiveMongoTemplate,
+            mock(RatingSummaryReactiveRepository.class), ratingContributionReactiveRepository, false);
+
+    @BeforeEach
+    void setUp() {
+        when(reactiveMongoTemplate.getCollectionName(Review.class)).thenReturn("review");
+        when(reactiveMongoTemplate.getCollectionName(RatingContribution.class)).thenReturn("ratingContribution");
+        when(reactiveMongoTemplate.getCollectionName(RatingSummary.class)).thenReturn("ratingSummary");
+        when(reactiveMongoTemplate.count(any(Query.class), eq("ratingSummary"))).thenReturn(Mono.just(1L));
+        when(reactiveMongoTemplate.upsert(any(Query.class), any(Update.class), eq(RatingSummary.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 1L, null)));
+        when(ratingContributionReactiveRepository.findById(anyString())).thenReturn(Mono.empty());
+        when(ratingContributionReactiveRepository.save(any(RatingContribution.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void rebuild_holdsBackChangesUntilItIsDone() {
+        // given
+        var contributionsRebuilt = Sinks.<Document>empty();
+        when(reactiveMongoTemplate.aggregate(any(Aggregation.class), eq("review"), eq(Document.class)))
+                .thenReturn(contributionsRebuilt.asMono().flux());
+        when(reactiveMongoTemplate.aggregate(any(Aggregation.class), eq("ratingContribution"), eq(Document.class)))
+                .thenReturn(Mono.<Document>empty().flux());
+        var rebuild = ratingSummaryService.rebuild().toFuture();
+
+        // when
+        var change = ratingSummaryService.onReviewSaved(new Review("abc", 1L, "Awesome Movie", 9.0)).toFuture();
+
+        // then
+        verify(reactiveMongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(RatingSummary.class));
+        contributionsRebuilt.tryEmitEmpty();
+        StepVerifier.create(Mono.fromFuture(rebuild))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(Mono.fromFuture(change))
+                .verifyComplete();
+        verify(reactiveMongoTemplate).upsert(any(Query.class), any(Update.class), eq(RatingSummary.class));
+    }
+
+    @Test
+    void rebuild_waitsForTheChangesInFlight() {
+        // given
+        var contributionSaved = Sinks.<RatingContribution>one();
+        when(ratingContributionReactiveRepository.save(any(RatingContribution.class))).thenReturn(contributionSaved.asMono());
+        when(reactiveMongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+                .thenReturn(Mono.<Document>empty().flux());
+        var change = ratingSummaryService.onReviewSaved(new Review("abc", 1L, "Awesome Movie", 9.0)).toFuture();
+
+        // when
+        var rebuild = ratingSummaryService.rebuild().toFuture();
+
+        // then
+        verify(reactiveMongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), eq(Document.class));
+        contributionSaved.tryEmitValue(new RatingContribution("abc", 1L, 9.0));
+        StepVerifier.create(Mono.fromFuture(change))
+                .verifyComplete();
+        StepVerifier.create(Mono.fromFuture(rebuild))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,120 @@
+package com.reactivespring.service;
+
+import com.reactivespring.domain.Review;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReviewFeedTest {
+
+    @SuppressWarnings("unchecked")
+    ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+
+    ReviewFeed reviewFeed = new ReviewFeed(meterRegistry, 4);
+
+    private static Review review(int i) {
+        return new Review(String.valueOf(i), 1L, "Review " + i, 8.0);
+    }
+
+    @Test
+    void subscribe_filtersByMovieInfoId() {
+        // when & then
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.DROP_OLDEST))
+                .then(() -> {
+                    reviewFeed.publish(new Review("a", 2L, "Excellent Movie", 8.0));
+                    reviewFeed.publish(new Review("b", 1L, "Awesome Movie", 9.0));
+                })
+                .expectNextMatches(review -> "b".equals(review.getReviewId()))
+                .thenCancel()
+                .verify();
+        assertEquals(0, reviewFeed.subscriberCount());
+    }
+
+    @Test
+    void subscribe_dropOldestKeepsNewestEvents() {
+        // when & then : the subscriber has asked for nothing while 10 reviews arrive
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.DROP_OLDEST), 0)
+                .then(() -> IntStream.range(0, 10).forEach(i -> reviewFeed.publish(review(i))))
+                .then(() -> assertEquals(4, reviewFeed.queuedCount()))
+                .thenRequest(4)
+                .expectNextMatches(review -> "6".equals(review.getReviewId()))
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+        assertEquals(6, reviewFeed.droppedCount(ReviewFeed.Overflow.DROP_OLDEST));
+        assertEquals(0, reviewFeed.queuedCount());
+    }
+
+    @Test
+    void subscribe_latestKeepsOnlyTheLastEvent() {
+        // when & then
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.LATEST), 0)
+                .then(() -> IntStream.range(0, 10).forEach(i -> reviewFeed.publish(review(i))))
+                .thenRequest(1)
+                .expectNextMatches(review -> "9".equals(review.getReviewId()))
+                .thenCancel()
+                .verify();
+        assertEquals(9, reviewFeed.droppedCount(ReviewFeed.Overflow.LATEST));
+    }
+
+    @Test
+    void subscribe_errorDisconnectsSlowSubscriber() {
+        // when & then
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.ERROR), 0)
+                .then(() -> IntStream.range(0, 10).forEach(i -> reviewFeed.publish(review(i))))
+                .thenRequest(10)
+                .expectNextCount(4)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verify();
+        assertEquals(0, reviewFeed.subscriberCount());
+        assertEquals(0, reviewFeed.queuedCount());
+    }
+
+    @Test
+    void subscribe_slowSubscriberDoesNotStallThousandsOfOthers() throws InterruptedException {
+        // given
+        var subscribers = 2000;
+        var reviews = 50;
+        var received = new AtomicLong();
+        var completed = new CountDownLatch(subscribers);
+        var disposables = new ArrayList<Disposable>();
+        for (int i = 0; i < subscribers; i++) {
+            disposables.add(reviewFeed.subscribe(1L, ReviewFeed.Overflow.DROP_OLDEST)
+                    .publishOn(Schedulers.parallel())
+                    .take(reviews)
+                    .doOnNext(review -> received.incrementAndGet())
+                    .doOnComplete(completed::countDown)
+                    .subscribe());
+        }
+        // one subscriber that never reads
+        StepVerifier.create(reviewFeed.subscribe(1L, ReviewFeed.Overflow.DROP_OLDEST), 0)
+                .then(() -> Flux.range(0, reviews)
+                        .delayElements(Duration.ofMillis(2))
+                        .doOnNext(i -> reviewFeed.publish(review(i)))
+                        .blockLast())
+                .thenCancel()
+                .verify();
+
+        // then
+        assertTrue(completed.await(10, TimeUnit.SECONDS), "fast subscribers were stalled");
+        assertEquals((long) subscribers * reviews, received.get());
+        assertEquals(reviews - 4, reviewFeed.droppedCount(ReviewFeed.Overflow.DROP_OLDEST));
+        disposables.forEach(Disposable::dispose);
+    }
+}
@@ -0,0 +1,97 @@
+package com.reactivespring.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/*
+ * Encoding and decoding one Movie with `reviews` reviews through the same Spring codecs the services
+ * use, JSON against Smile. The gc profiler shows what each format allocates per Movie; the encoded
+ * sizes are asserted by CodecConfigTest rather than printed from here.
+ */
+@State(Scope.Benchmark)
+public class MovieCodecBenchmark {
+
+    private static final ResolvableType MOVIE = ResolvableType.forClass(Movie.class);
+
+    @Param({"json", "smile"})
+    String format;
+
+    @Param({"2", "20", "200"})
+    int reviews;
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+    private AbstractJackson2Encoder encoder;
+    private AbstractJackson2Decoder decoder;
+    private MediaType mediaType;
+    private Movie movie;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        if (format.equals("smile")) {
+            var smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            encoder = new Jackson2SmileEncoder(smileMapper, CodecConfig.APPLICATION_SMILE);
+            decoder = new Jackson2SmileDecoder(smileMapper, CodecConfig.APPLICATION_SMILE);
+            mediaType = CodecConfig.APPLICATION_SMILE;
+        } else {
+            var jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+            encoder = new Jackson2JsonEncoder(jsonMapper);
+            decoder = new Jackson2JsonDecoder(jsonMapper);
+            mediaType = MediaType.APPLICATION_JSON;
+        }
+        movie = movie(reviews);
+
+        var buffer = encode();
+        encoded = new byte[buffer.readableByteCount()];
+        buffer.read(encoded);
+    }
+
+    @Benchmark
+    public DataBuffer encode() {
+        return encoder.encodeValue(movie, bufferFactory, MOVIE, mediaType, Map.of());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return decoder.decode(bufferFactory.wrap(encoded), MOVIE, mediaType, Map.of());
+    }
+
+    /*
+     * Shaped like the documents of movies-review-service: ObjectId review ids, one sentence comments.
+     */
+    private static Movie movie(int reviews) {
+        var random = new SplittableRandom(42);
+        var movieInfo = new MovieInfo("5f8d0d55b54764421b7156c9", "Batman Begins", 2005,
+                List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+        var reviewList = new ArrayList<Review>();
+        for (int i = 0; i < reviews; i++) {
+            reviewList.add(new Review(String.format("%024x", random.nextLong() & Long.MAX_VALUE), 1L,
+                    "Review " + i + ", an excellent movie with a great cast", (double) random.nextInt(11)));
+        }
+        return new Movie(movieInfo, reviewList);
+    }
+}
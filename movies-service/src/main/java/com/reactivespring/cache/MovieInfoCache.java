@@ -0,0 +1,158 @@
+package com.reactivespring.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.reactivespring.client.MoviesInfoRestClient;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.exception.MoviesInfoClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/*
+ * In-process cache in front of MoviesInfoRestClient. Concurrent misses for the same id share one
+ * loading future, so a burst of requests for a cold title results in a single upstream call.
+ * Entries are refreshed in the background once they are older than refreshAfterWrite, callers keep
+ * getting the current value meanwhile.
+ *
+ * A 404 from movies-info-service can be cached as an empty Optional for a shorter time, so lookups of
+ * unknown ids do not hammer the upstream either.
+ */
+@Component
+@Slf4j
+public class MovieInfoCache {
+
+    // rough per-entry overhead (entry, MovieInfo, LocalDate, list) used by the weigher
+    private static final int ENTRY_OVERHEAD_BYTES = 200;
+
+    private final MoviesInfoRestClient moviesInfoRestClient;
+    private final boolean enabled;
+    private final boolean negativeCachingEnabled;
+    private final AsyncLoadingCache<String, Optional<MovieInfo>> cache;
+
+    public MovieInfoCache(MoviesInfoRestClient moviesInfoRestClient,
+                          ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${moviesInfoCache.enabled:true}") boolean enabled,
+                          @Value("${moviesInfoCache.maximumSize:10000}") long maximumSize,
+                          @Value("${moviesInfoCache.maximumWeight:0}") long maximumWeight,
+                          @Value("${moviesInfoCache.expireAfterWrite:10m}") Duration expireAfterWrite,
+                          @Value("${moviesInfoCache.refreshAfterWrite:1m}") Duration refreshAfterWrite,
+                          @Value("${moviesInfoCache.negativeCaching.enabled:true}") boolean negativeCachingEnabled,
+                          @Value("${moviesInfoCache.negativeCaching.ttl:30s}") Duration negativeTtl) {
+        this.moviesInfoRestClient = moviesInfoRestClient;
+        this.enabled = enabled;
+        this.negativeCachingEnabled = negativeCachingEnabled;
+
+        var builder = Caffeine.newBuilder()
+                .expireAfter(new PositiveNegativeExpiry(expireAfterWrite, negativeTtl))
+                .refreshAfterWrite(refreshAfterWrite)
+                .removalListener((key, value, cause) -> {
+                    if (cause.wasEvicted()) {
+                        log.debug("MovieInfo {} evicted from cache : {}", key, cause);
+                    }
+                })
+                .recordStats();
+        if (maximumWeight > 0) {
+            builder.maximumWeight(maximumWeight)
+                    .weigher((String key, Optional<MovieInfo> value) -> weigh(key, value));
+        } else {
+            builder.maximumSize(maximumSize);
+        }
+        this.cache = builder.buildAsync((movieId, executor) -> load(movieId).toFuture());
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "movieInfoCache"));
+    }
+
+    public Mono<MovieInfo> retrieveMovieInfo(String movieId) {
+        if (!enabled) {
+            return moviesInfoRestClient.retrieveMovieInfo(movieId);
+        }
+
+        // deferred so the lookup (and a load on a miss) happens per subscription, not when the pipeline is built;
+        // copy() so that a cancelled caller does not cancel the future shared with the other callers
+        return Mono.defer(() -> Mono.fromFuture(cache.get(movieId).copy()))
+                .flatMap(movieInfo -> movieInfo
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(notFound(movieId))));
+    }
+
+    public void invalidate(String movieId) {
+        cache.synchronous().invalidate(movieId);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private Mono<Optional<MovieInfo>> load(String movieId) {
+        return moviesInfoRestClient.retrieveMovieInfo(movieId)
+                .map(Optional::of)
+                .onErrorResume(ex -> negativeCachingEnabled && isNotFound(ex), ex -> Mono.just(Optional.empty()));
+    }
+
+    private static boolean isNotFound(Throwable ex) {
+        return ex instanceof MoviesInfoClientException
+                && Integer.valueOf(404).equals(((MoviesInfoClientException) ex).getStatusCode());
+    }
+
+    private static MoviesInfoClientException notFound(String movieId) {
+        return new MoviesInfoClientException("There is no MovieInfo Available for the passed in Id : " + movieId, 404);
+    }
+
+    private static int weigh(String movieId, Optional<MovieInfo> value) {
+        var weight = ENTRY_OVERHEAD_BYTES + 2 * movieId.length();
+        if (value.isPresent()) {
+            var movieInfo = value.get();
+            weight += 2 * lengthOf(movieInfo.getMovieInfoId()) + 2 * lengthOf(movieInfo.getName());
+            if (movieInfo.getCast() != null) {
+                for (var member : movieInfo.getCast()) {
+                    weight += 40 + 2 * lengthOf(member);
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static int lengthOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static final class PositiveNegativeExpiry implements Expiry<String, Optional<MovieInfo>> {
+
+        private final long positiveTtlNanos;
+        private final long negativeTtlNanos;
+
+        private PositiveNegativeExpiry(Duration positiveTtl, Duration negativeTtl) {
+            this.positiveTtlNanos = positiveTtl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<MovieInfo> value, long currentTime) {
+            return value.isPresent() ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<MovieInfo> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<MovieInfo> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.reactivespring.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Approximate percentile of the most recent call latencies. Recording only writes into a ring
+ * buffer; the percentile is recomputed from a copy every RECOMPUTE_EVERY samples, so readers just
+ * see a volatile long. Races between writers can lose a sample, which is fine for an estimate.
+ */
+class LatencyPercentileEstimator {
+
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final long[] samples;
+    private final double percentile;
+    private final long minNanos;
+    private final long maxNanos;
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long estimateNanos;
+
+    LatencyPercentileEstimator(int windowSize, double percentile, Duration min, Duration max) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        // until we have seen traffic, hedge late rather than early
+        this.estimateNanos = maxNanos;
+    }
+
+    void record(long latencyNanos) {
+        var count = recorded.incrementAndGet();
+        samples[(int) ((count - 1) % samples.length)] = latencyNanos;
+        if (count % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(count, samples.length));
+        }
+    }
+
+    Duration estimate() {
+        return Duration.ofNanos(estimateNanos);
+    }
+
+    long recordedCount() {
+        return recorded.get();
+    }
+
+    private void recompute(int size) {
+        var window = Arrays.copyOf(samples, size);
+        Arrays.sort(window);
+        var index = (int) Math.ceil(percentile * size) - 1;
+        estimateNanos = Math.max(minNanos, Math.min(maxNanos, window[Math.max(0, index)]));
+    }
+}
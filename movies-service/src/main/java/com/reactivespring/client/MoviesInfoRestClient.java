@@ -0,0 +1,129 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Slf4j
+public class MoviesInfoRestClient {
+
+    private static final int HEDGING_WINDOW_SIZE = 1024;
+    private static final double HEDGING_PERCENTILE = 0.95;
+
+    private final WebClient webClient;
+    private final UpstreamRetry upstreamRetry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final boolean hedgingEnabled;
+    private final LatencyPercentileEstimator latencyEstimator;
+
+    @Value("${restClient.moviesInfoUrl}")
+    private String moviesInfoUrl;
+
+    @Value("${restClient.timeout:2s}")
+    private Duration timeout;
+
+    public MoviesInfoRestClient(WebClient webClient,
+                                UpstreamRetry upstreamRetry,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                BulkheadRegistry bulkheadRegistry,
+                                @Value("${movies.hedging.enabled:false}") boolean hedgingEnabled,
+                                @Value("${movies.hedging.minDelay:50ms}") Duration minHedgingDelay,
+                                @Value("${movies.hedging.maxDelay:1s}") Duration maxHedgingDelay) {
+        this.webClient = webClient;
+        this.upstreamRetry = upstreamRetry;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("moviesInfo");
+        this.bulkhead = bulkheadRegistry.bulkhead("moviesInfo");
+        this.hedgingEnabled = hedgingEnabled;
+        this.latencyEstimator = new LatencyPercentileEstimator(HEDGING_WINDOW_SIZE, HEDGING_PERCENTILE,
+                minHedgingDelay, maxHedgingDelay);
+    }
+
+    public Mono<MovieInfo> retrieveMovieInfo(String movieId) {
+        // retries run inside the breaker and the bulkhead, so the breaker sees the outcome after retrying
+        var call = upstreamRetry.retry(Mono.defer(() -> fetchMovieInfo(movieId)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(CallNotPermittedException.class, ex -> new MoviesInfoServerException(
+                        "MoviesInfoService circuit breaker is open"))
+                .onErrorMap(BulkheadFullException.class, ex -> new MoviesInfoServerException(
+                        "Too many concurrent calls to MoviesInfoService"));
+
+        return hedgingEnabled ? hedged(call) : call;
+    }
+
+    /*
+     * Hedged request: if the first call has not answered after the recent p95 latency, a second identical
+     * call is sent and whichever answers first wins, the other one is cancelled. A failing hedge is ignored
+     * so the first call (which carries the timeout) decides the outcome.
+     * Only calls that answered feed the estimate, each timed from its own start: a cancelled or failed
+     * call would record a time that says nothing about how long an answer takes.
+     */
+    private Mono<MovieInfo> hedged(Mono<MovieInfo> call) {
+        return Mono.defer(() -> {
+            var primary = timed(call);
+            var hedge = Mono.delay(latencyEstimator.estimate())
+                    .then(timed(call))
+                    .onErrorResume(ex -> Mono.never());
+
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    private Mono<MovieInfo> timed(Mono<MovieInfo> call) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return call.doOnNext(movieInfo -> latencyEstimator.record(System.nanoTime() - start));
+        });
+    }
+
+    private Mono<MovieInfo> fetchMovieInfo(String movieId) {
+        var url = moviesInfoUrl.concat("/{id}");
+
+        return webClient
+                .get()
+                .uri(url, movieId)
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
+                    log.info("Status code is : {}", clientResponse.rawStatusCode());
+                    if (clientResponse.statusCode().equals(HttpStatus.NOT_FOUND)) {
+                        return Mono.error(new MoviesInfoClientException(
+                                "There is no MovieInfo Available for the passed in Id : " + movieId,
+                                clientResponse.rawStatusCode()));
+                    }
+                    return clientResponse.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .flatMap(responseMessage -> Mono.error(new MoviesInfoClientException(
+                                    responseMessage, clientResponse.rawStatusCode())));
+                })
+                .onStatus(HttpStatus::is5xxServerError, clientResponse -> {
+                    log.info("Status code is : {}", clientResponse.rawStatusCode());
+                    return clientResponse.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .flatMap(responseMessage -> Mono.error(new MoviesInfoServerException(
+                                    "Server Exception in MoviesInfoService " + responseMessage)));
+                })
+                .bodyToMono(MovieInfo.class)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, ex -> new MoviesInfoServerException(
+                        "MoviesInfoService did not respond within " + timeout.toMillis() + "ms"));
+    }
+}
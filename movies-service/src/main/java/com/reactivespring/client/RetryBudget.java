@@ -0,0 +1,40 @@
+package com.reactivespring.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket shared by all upstream calls: every call deposits `ratio` of a token and every retry
+ * takes a whole one, so over time retries stay below that fraction of the live traffic. The bucket
+ * starts full so that a quiet service can still retry a few isolated failures.
+ * Tokens are kept in thousandths to stay on a single AtomicLong.
+ */
+class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerCall;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.depositPerCall = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void recordCall() {
+        balance.getAndUpdate(current -> Math.min(capacity, current + depositPerCall));
+    }
+
+    boolean tryAcquireRetry() {
+        while (true) {
+            var current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.Review;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ * DataLoader style front end for the reviews service: single-movie lookups that arrive within the same
+ * small time window are coalesced into one POST /v1/reviews/batch call, and each caller gets back
+ * only the reviews of its own movie.
+ */
+@Component
+@Slf4j
+public class ReviewsBatchLoader {
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final ReviewsRestClient reviewsRestClient;
+    private final boolean enabled;
+    private final Sinks.Many<PendingLoad> pendingLoads = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable dispatcher;
+
+    public ReviewsBatchLoader(ReviewsRestClient reviewsRestClient,
+                              @Value("${restClient.reviewsBatch.enabled:true}") boolean enabled,
+                              @Value("${restClient.reviewsBatch.window:5ms}") Duration window,
+                              @Value("${restClient.reviewsBatch.maxSize:100}") int maxBatchSize,
+                              @Value("${restClient.reviewsBatch.maxConcurrency:16}") int maxConcurrentBatches) {
+        this.reviewsRestClient = reviewsRestClient;
+        this.enabled = enabled;
+        this.dispatcher = pendingLoads.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                // bufferTimeout errors if its timer fires without demand, so never let it see backpressure
+                .onBackpressureBuffer()
+                .flatMap(this::dispatch, maxConcurrentBatches)
+                .subscribe();
+    }
+
+    public Mono<List<Review>> load(String movieId) {
+        var movieInfoId = toMovieInfoId(movieId);
+        if (!enabled || movieInfoId == null) {
+            // ids the reviews service cannot key on go through the single call so it reports the error itself
+            return reviewsRestClient.retrieveReviews(movieId).collectList();
+        }
+
+        return Mono.defer(() -> {
+            var pendingLoad = new PendingLoad(movieInfoId);
+            pendingLoads.emitNext(pendingLoad, RETRY_NON_SERIALIZED);
+            return pendingLoad.result.asMono();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.dispose();
+    }
+
+    private Mono<Void> dispatch(List<PendingLoad> batch) {
+        var movieInfoIds = batch.stream()
+                .map(pendingLoad -> pendingLoad.movieInfoId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        log.debug("Dispatching reviews batch of {} loads for {} movies", batch.size(), movieInfoIds.size());
+
+        return reviewsRestClient.retrieveReviewsBatch(movieInfoIds)
+                .collectMap(MovieReviews::getMovieInfoId, MovieReviews::getReviewList)
+                .doOnNext(reviewsById -> batch.forEach(pendingLoad ->
+                        pendingLoad.result.tryEmitValue(reviewsById.getOrDefault(pendingLoad.movieInfoId, List.of()))))
+                .doOnError(ex -> batch.forEach(pendingLoad -> pendingLoad.result.tryEmitError(ex)))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    private static Long toMovieInfoId(String movieId) {
+        try {
+            return Long.valueOf(movieId);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static final class PendingLoad {
+
+        private final Long movieInfoId;
+        private final Sinks.One<List<Review>> result = Sinks.one();
+
+        private PendingLoad(Long movieInfoId) {
+            this.movieInfoId = movieInfoId;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.reactivespring.client;
+
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@Slf4j
+public class ReviewsRestClient {
+
+    // streamed Smile from a reviews service that has the codec, NDJSON from one that does not
+    private static final MediaType[] BATCH_ACCEPT_SMILE = {
+            CodecConfig.APPLICATION_STREAM_SMILE,
+            new MediaType(MediaType.APPLICATION_NDJSON, Map.of("q", "0.5"))};
+    private static final MediaType[] BATCH_ACCEPT_NDJSON = {MediaType.APPLICATION_NDJSON};
+
+    private final WebClient webClient;
+    private final UpstreamRetry upstreamRetry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    @Value("${restClient.reviewsUrl}")
+    private String reviewsUrl;
+
+    @Value("${restClient.timeout:2s}")
+    private Duration timeout;
+
+    @Value("${restClient.binaryCodec.enabled:true}")
+    private boolean binaryCodec;
+
+    public ReviewsRestClient(WebClient webClient,
+                             UpstreamRetry upstreamRetry,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             BulkheadRegistry bulkheadRegistry) {
+        this.webClient = webClient;
+        this.upstreamRetry = upstreamRetry;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("reviews");
+        this.bulkhead = bulkheadRegistry.bulkhead("reviews");
+    }
+
+    /*
+     * A movie without reviews is not an error for the aggregate, so a 404 is turned into an empty Flux.
+     */
+    public Flux<Review> retrieveReviews(String movieId) {
+        return guarded(Flux.defer(() -> fetchReviews(movieId)));
+    }
+
+    private Flux<Review> fetchReviews(String movieId) {
+        var url = UriComponentsBuilder.fromHttpUrl(reviewsUrl)
+                .queryParam("movieInfoId", movieId)
+                .buildAndExpand()
+                .toUriString();
+
+        return webClient
+                .get()
+                .uri(url)
+                .exchangeToFlux(clientResponse -> {
+                    if (clientResponse.statusCode().equals(HttpStatus.NOT_FOUND)) {
+                        return clientResponse.releaseBody().thenMany(Flux.empty());
+                    }
+                    if (clientResponse.statusCode().is4xxClientError()) {
+                        log.info("Status code is : {}", clientResponse.rawStatusCode());
+                        return clientResponse.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .flatMapMany(responseMessage -> Flux.error(new ReviewsClientException(responseMessage)));
+                    }
+                    if (clientResponse.statusCode().is5xxServerError()) {
+                        log.info("Status code is : {}", clientResponse.rawStatusCode());
+                        return clientResponse.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .flatMapMany(responseMessage -> Flux.error(new ReviewsServerException(
+                                        "Server Exception in ReviewsService " + responseMessage)));
+                    }
+                    return clientResponse.bodyToFlux(Review.class);
+                })
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, ex -> new ReviewsServerException(
+                        "ReviewsService did not respond within " + timeout.toMillis() + "ms"));
+    }
+
+    /*
+     * One round trip for many movies, see ReviewsBatchLoader.
+     */
+    public Flux<MovieReviews> retrieveReviewsBatch(Collection<Long> movieInfoIds) {
+        return guarded(Flux.defer(() -> fetchReviewsBatch(movieInfoIds)));
+    }
+
+    private Flux<MovieReviews> fetchReviewsBatch(Collection<Long> movieInfoIds) {
+        var url = reviewsUrl.concat("/batch");
+
+        return webClient
+                .post()
+                .uri(url)
+                .accept(binaryCodec ? BATCH_ACCEPT_SMILE : BATCH_ACCEPT_NDJSON)
+                .bodyValue(movieInfoIds)
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
+                    log.info("Status code is : {}", clientResponse.rawStatusCode());
+                    return clientResponse.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .flatMap(responseMessage -> Mono.error(new ReviewsClientException(responseMessage)));
+                })
+                .onStatus(HttpStatus::is5xxServerError, clientResponse -> {
+                    log.info("Status code is : {}", clientResponse.rawStatusCode());
+                    return clientResponse.bodyToMono(String.class)
+                            .defaultIfEmpty("")
+                            .flatMap(responseMessage -> Mono.error(new ReviewsServerException(
+                                    "Server Exception in ReviewsService " + responseMessage)));
+                })
+                .bodyToFlux(MovieReviews.class)
+                .timeout(timeout)
+                .onErrorMap(TimeoutException.class, ex -> new ReviewsServerException(
+                        "ReviewsService did not respond within " + timeout.toMillis() + "ms"));
+    }
+
+    private <T> Flux<T> guarded(Flux<T> call) {
+        return upstreamRetry.retry(call)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(CallNotPermittedException.class, ex -> new ReviewsServerException(
+                        "ReviewsService circuit breaker is open"))
+                .onErrorMap(BulkheadFullException.class, ex -> new ReviewsServerException(
+                        "Too many concurrent calls to ReviewsService"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.reactivespring.client;
+
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.ReviewsServerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Retry policy for the idempotent reads against movies-info-service and movies-review-service.
+ * Only server side failures (5xx, timeouts, refused connections) are retried, never the client
+ * exceptions: a 404 or 400 will not get better by asking again. Backoff is exponential with jitter so
+ * that callers that failed together do not come back together, each request stops retrying once
+ * maxElapsed is spent, and all requests share one RetryBudget so a brownout upstream cannot be
+ * multiplied by our retries.
+ */
+@Component
+@Slf4j
+public class UpstreamRetry {
+
+    private final boolean enabled;
+    private final long maxAttempts;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final double jitter;
+    private final long maxElapsedNanos;
+    private final RetryBudget retryBudget;
+
+    public UpstreamRetry(@Value("${restClient.retry.enabled:true}") boolean enabled,
+                         @Value("${restClient.retry.maxAttempts:2}") long maxAttempts,
+                         @Value("${restClient.retry.minBackoff:100ms}") Duration minBackoff,
+                         @Value("${restClient.retry.maxBackoff:1s}") Duration maxBackoff,
+                         @Value("${restClient.retry.jitter:0.5}") double jitter,
+                         @Value("${restClient.retry.maxElapsed:3s}") Duration maxElapsed,
+                         @Value("${restClient.retry.budget.ratio:0.1}") double budgetRatio,
+                         @Value("${restClient.retry.budget.maxTokens:10}") int budgetMaxTokens) {
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.jitter = jitter;
+        this.maxElapsedNanos = maxElapsed.toNanos();
+        this.retryBudget = new RetryBudget(budgetRatio, budgetMaxTokens);
+    }
+
+    public <T> Mono<T> retry(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+
+        return Mono.defer(() -> {
+            retryBudget.recordCall();
+            return call.retryWhen(retrySpec(System.nanoTime(), new AtomicBoolean()));
+        });
+    }
+
+    /*
+     * A Flux is only retried while it has not emitted anything, otherwise the subscriber would see the
+     * first elements twice.
+     */
+    public <T> Flux<T> retry(Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+
+        return Flux.defer(() -> {
+            retryBudget.recordCall();
+            var emitted = new AtomicBoolean();
+            return call.doOnNext(element -> emitted.set(true))
+                    .retryWhen(retrySpec(System.nanoTime(), emitted));
+        });
+    }
+
+    /*
+     * The attempt limit is checked in the filter as well, ahead of the budget, so that a request that is
+     * out of attempts does not take a token it will never use.
+     */
+    private Retry retrySpec(long start, AtomicBoolean emitted) {
+        var attempts = new AtomicLong();
+        return Retry.backoff(maxAttempts, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(jitter)
+                .filter(ex -> !emitted.get()
+                        && isRetryable(ex)
+                        && attempts.incrementAndGet() <= maxAttempts
+                        && System.nanoTime() - start < maxElapsedNanos
+                        && retryBudget.tryAcquireRetry())
+                .doBeforeRetry(retrySignal -> log.info("Retrying upstream call, attempt {} : {}",
+                        retrySignal.totalRetries() + 1, retrySignal.failure().getMessage()))
+                // give the caller the upstream failure rather than reactor's RetryExhaustedException
+                .onRetryExhaustedThrow((retrySpec, retrySignal) -> retrySignal.failure());
+    }
+
+    static boolean isRetryable(Throwable ex) {
+        return ex instanceof MoviesInfoServerException
+                || ex instanceof ReviewsServerException
+                || ex instanceof WebClientRequestException;
+    }
+}
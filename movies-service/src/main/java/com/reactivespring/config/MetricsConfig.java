@@ -0,0 +1,79 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+
+@Configuration
+public class MetricsConfig {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    // the routes this service serves, literal ones before the templates that would also match them
+    private static final List<String> ROUTES = List.of("/v1/movies/{id}");
+
+    /*
+     * Reactor Netty server metrics (connections, bytes, response time per uri and method) next to
+     * Spring's http.server.requests. Netty only sees the raw uri, so it is mapped to the route it matches,
+     * query string dropped; anything else, a scan of random paths say, is tagged UNMATCHED. Otherwise every
+     * movie, and every path anyone tries, would become a time series of its own.
+     */
+    @Bean
+    public NettyServerCustomizer nettyServerMetrics() {
+        return httpServer -> httpServer.metrics(true, MetricsConfig::uriTag);
+    }
+
+    public static String uriTag(String uri) {
+        return uriTag(uri, ROUTES);
+    }
+
+    /*
+     * The same for the calls to the upstreams, whose paths hang off restClient.moviesInfoUrl and
+     * restClient.reviewsUrl: /{id} on the first, the collection itself and /batch on the second.
+     */
+    public static Function<String, String> upstreamUriTag(String moviesInfoUrl, String reviewsUrl) {
+        var moviesInfoPath = URI.create(moviesInfoUrl).getPath();
+        var reviewsPath = URI.create(reviewsUrl).getPath();
+        var upstreamRoutes = List.of(
+                moviesInfoPath + "/{id}",
+                reviewsPath + "/batch",
+                reviewsPath);
+        // Netty hands over the path of the request, a full url is reduced to its path all the same
+        return uri -> {
+            try {
+                var path = URI.create(uri).getRawPath();
+                return path == null ? UNMATCHED : uriTag(path, upstreamRoutes);
+            } catch (IllegalArgumentException ex) {
+                return UNMATCHED;
+            }
+        };
+    }
+
+    private static String uriTag(String uri, List<String> routes) {
+        var queryStart = uri.indexOf('?');
+        var path = (queryStart < 0 ? uri : uri.substring(0, queryStart)).split("/");
+        for (var route : routes) {
+            if (matches(route.split("/"), path)) {
+                return route;
+            }
+        }
+        return UNMATCHED;
+    }
+
+    private static boolean matches(String[] route, String[] path) {
+        if (route.length != path.length) {
+            return false;
+        }
+        for (int i = 0; i < route.length; i++) {
+            var variable = route[i].startsWith("{") && !path[i].isEmpty();
+            if (!variable && !route[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.reactivespring.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class WebClientConfig {
+
+    public static final MediaType JSON_FALLBACK = new MediaType(MediaType.APPLICATION_JSON, Map.of("q", "0.5"));
+
+    @Value("${restClient.moviesInfoUrl}")
+    private String moviesInfoUrl;
+
+    @Value("${restClient.reviewsUrl}")
+    private String reviewsUrl;
+
+    @Value("${restClient.connectTimeout:1s}")
+    private Duration connectTimeout;
+
+    @Value("${restClient.timeout:2s}")
+    private Duration responseTimeout;
+
+    @Value("${restClient.pool.maxConnections:500}")
+    private int maxConnections;
+
+    @Value("${restClient.pool.pendingAcquireMaxCount:1000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${restClient.pool.pendingAcquireTimeout:2s}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${restClient.pool.maxIdleTime:30s}")
+    private Duration maxIdleTime;
+
+    @Value("${restClient.pool.maxLifeTime:5m}")
+    private Duration maxLifeTime;
+
+    @Value("${restClient.binaryCodec.enabled:true}")
+    private boolean binaryCodec;
+
+    @Value("${restClient.http2.enabled:false}")
+    private boolean http2;
+
+    @Value("${restClient.http2.maxConnections:2}")
+    private int http2MaxConnections;
+
+    @Value("${restClient.compression.enabled:true}")
+    private boolean compression;
+
+    /*
+     * One pool shared by the info and review clients, so both upstream calls of an aggregation
+     * can be in flight at the same time. Idle connections are evicted in the background so we
+     * never hand out a socket the upstream has already closed. The pool reports its total, active,
+     * idle and pending connections as reactor.netty.connection.provider.* gauges.
+     * With HTTP/2 every call is a stream on a pooled connection. The pool only multiplexes once it is
+     * full and opens a new connection for a call otherwise, so it is kept to a few connections per upstream.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider() {
+        return ConnectionProvider.builder("movies-service-upstreams")
+                .maxConnections(http2 ? http2MaxConnections : maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider connectionProvider) {
+        var httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                .keepAlive(true)
+                // connect, TLS, time to first byte and bytes per upstream uri
+                .metrics(true, MetricsConfig.upstreamUriTag(moviesInfoUrl, reviewsUrl));
+        if (http2) {
+            // cleartext HTTP/2 with prior knowledge, so only for upstreams that all run h2c (server.http2.enabled):
+            // an HTTP/1.1-only upstream fails every call. The HTTP/1.1 Upgrade route is not used as it opens a
+            // connection per call until each one has upgraded
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
+        if (compression) {
+            // sends Accept-Encoding: gzip and inflates what comes back
+            httpClient = httpClient.compress(true);
+        }
+
+        builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+        if (binaryCodec) {
+            // Smile from upstreams that have the codec, JSON from any that do not
+            builder.defaultHeaders(headers -> headers.setAccept(List.of(
+                    CodecConfig.APPLICATION_SMILE, JSON_FALLBACK)));
+        }
+        return builder.build();
+    }
+}
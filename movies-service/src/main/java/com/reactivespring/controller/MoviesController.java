@@ -0,0 +1,54 @@
+package com.reactivespring.controller;
+
+import com.reactivespring.cache.MovieInfoCache;
+import com.reactivespring.client.ReviewsBatchLoader;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewsServerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@Slf4j
+@RequestMapping("/v1/movies")
+public class MoviesController {
+
+    private final MovieInfoCache movieInfoCache;
+    private final ReviewsBatchLoader reviewsBatchLoader;
+
+    @Value("${movies.degradedMode.enabled:false}")
+    private boolean degradedModeEnabled;
+
+    public MoviesController(MovieInfoCache movieInfoCache, ReviewsBatchLoader reviewsBatchLoader) {
+        this.movieInfoCache = movieInfoCache;
+        this.reviewsBatchLoader = reviewsBatchLoader;
+    }
+
+    /*
+     * Both upstream calls are subscribed at the same time by zip, so the latency of this endpoint
+     * is the slowest of the two calls and not their sum (as it would be with a sequential flatMap).
+     * If either side fails the other one is cancelled, except in degraded mode where an unavailable
+     * reviews service only costs us the reviewList.
+     */
+    @GetMapping("/{id}")
+    public Mono<Movie> retrieveMovieById(@PathVariable("id") String movieId) {
+        var movieInfoMono = movieInfoCache.retrieveMovieInfo(movieId);
+        var reviewsMono = reviewsBatchLoader.load(movieId)
+                .onErrorResume(ReviewsServerException.class, ex -> {
+                    if (!degradedModeEnabled) {
+                        return Mono.error(ex);
+                    }
+                    log.warn("Serving movie {} without reviews : {}", movieId, ex.getMessage());
+                    return Mono.just(List.of());
+                });
+
+        return Mono.zip(movieInfoMono, reviewsMono, Movie::new);
+    }
+}
@@ -0,0 +1,34 @@
+package com.reactivespring.exceptionhandler;
+
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+@ControllerAdvice
+@Slf4j
+public class GlobalErrorHandler {
+
+    @ExceptionHandler(MoviesInfoClientException.class)
+    public ResponseEntity<String> handleClientException(MoviesInfoClientException ex) {
+        log.error("Exception caught in handleClientException : {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatusCode()).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ReviewsClientException.class)
+    public ResponseEntity<String> handleReviewsClientException(ReviewsClientException ex) {
+        log.error("Exception caught in handleReviewsClientException : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler({MoviesInfoServerException.class, ReviewsServerException.class})
+    public ResponseEntity<String> handleServerException(RuntimeException ex) {
+        log.error("Exception caught in handleServerException : {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(ex.getMessage());
+    }
+}
@@ -1,4 +1,421 @@
 package com.reactivespring.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.reactivespring.cache.MovieInfoCache;
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.web.server.LocalManagementPort;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@AutoConfigureMetrics
+@AutoConfigureWireMock(port = 8084)
+@TestPropertySource(
+        properties = {
+                "restClient.moviesInfoUrl=http://localhost:8084/v1/movieinfos",
+                "restClient.reviewsUrl=http://localhost:8084/v1/reviews",
+                "restClient.timeout=2s",
+                // WireMock only speaks HTTP/1.1 in cleartext
+                "restClient.http2.enabled=false",
+                "restClient.retry.minBackoff=10ms",
+                "restClient.retry.maxElapsed=1s"
+        }
+)
 public class MoviesControllerIntgTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    MovieInfoCache movieInfoCache;
+
+    @LocalServerPort
+    int serverPort;
+
+    @LocalManagementPort
+    int managementPort;
+
+    @BeforeEach
+    void setUp() {
+        movieInfoCache.invalidateAll();
+    }
+
+    @Test
+    void retrieveMovieById() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(2, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_smile() throws IOException {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .withHeader("Accept", containing(CodecConfig.APPLICATION_SMILE.toString()))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", CodecConfig.APPLICATION_SMILE.toString())
+                        .withBody(smile("movieinfo.json"))));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .withHeader("Accept", containing(CodecConfig.APPLICATION_SMILE.toString()))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", CodecConfig.APPLICATION_SMILE.toString())
+                        .withBody(smile("reviews.json"))));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .accept(CodecConfig.APPLICATION_SMILE)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(CodecConfig.APPLICATION_SMILE)
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(LocalDate.parse("2005-06-15"), movie.getMovieInfo().getRelease_date());
+                    assertEquals(2, movie.getReviewList().size());
+                });
+    }
+
+    private static byte[] smile(String bodyFile) throws IOException {
+        var json = new ClassPathResource("__files/" + bodyFile).getInputStream();
+        return new ObjectMapper(new SmileFactory()).writeValueAsBytes(new ObjectMapper().readTree(json));
+    }
+
+    @Test
+    void retrieveMovieById_404() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse().withStatus(404)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectBody(String.class)
+                .isEqualTo("There is no MovieInfo Available for the passed in Id : abc");
+    }
+
+    @Test
+    void retrieveMovieById_reviews_404() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse().withStatus(404)));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals(0, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_5xx() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("MovieInfo Service Unavailable")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .is5xxServerError()
+                .expectBody(String.class)
+                .isEqualTo("Server Exception in MoviesInfoService MovieInfo Service Unavailable");
+    }
+
+    @Test
+    void retrieveMovieById_reviews5xx_degraded() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("Review Service Unavailable")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(0, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_5xxIsRetried() {
+        // given
+        var movieId = "def";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .inScenario("movieinfo-brownout")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(503)
+                        .withBody("MovieInfo Service Unavailable"))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .inScenario("movieinfo-brownout")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                });
+        verify(2, getRequestedFor(urlEqualTo("/v1/movieinfos/" + movieId)));
+    }
+
+    @Test
+    void retrieveMovieById_404IsNotRetried() {
+        // given
+        var movieId = "ghi";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse().withStatus(404)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieinfos/" + movieId)));
+    }
+
+    @Test
+    void retrieveMovieById_timeout() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")
+                        .withFixedDelay(4000)));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .is5xxServerError();
+    }
+
+    @Test
+    void retrieveMovieById_reviewsBatch() {
+        // given
+        var movieId = "1";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(post(urlEqualTo("/v1/reviews/batch"))
+                .withRequestBody(equalToJson("[1]"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/x-ndjson")
+                        .withBody("{\"movieInfoId\":1,\"reviewList\":[{\"reviewId\":\"1\",\"movieInfoId\":1,\"comment\":\"Awesome Movie\",\"rating\":9.0}]}\n")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals(1, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_movieInfoIsCached() {
+        // given
+        var movieId = "xyz";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/v1/movies/{id}", movieId)
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+        }
+
+        // then
+        verify(1, getRequestedFor(urlEqualTo("/v1/movieinfos/" + movieId)));
+        verify(3, getRequestedFor(urlEqualTo("/v1/reviews?movieInfoId=" + movieId)));
+    }
+
+    @Test
+    void prometheus_onManagementPort() {
+        // given
+        var movieId = "abc";
+        stubFor(get(urlEqualTo("/v1/movieinfos/" + movieId))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo("/v1/reviews"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("reviews.json")));
+
+        // through the Netty server, the auto-configured webTestClient is bound to the application context
+        WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + serverPort)
+                .build()
+                .get().uri("/v1/movies/{id}", movieId)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // when
+        var scrape = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + managementPort)
+                // the histogram buckets make for a large scrape
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build()
+                .get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assert scrape != null;
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{application=\"movies-service\""), "route histogram");
+        assertTrue(scrape.contains("uri=\"/v1/movies/{id}\""), "route template");
+        assertTrue(scrape.contains("http_client_requests_seconds_bucket"), "upstream histogram");
+        assertTrue(scrape.contains("reactor_netty_connection_provider_total_connections"), "upstream pool");
+        assertTrue(scrape.contains("reactor_netty_http_server_response_time_seconds_bucket"), "netty server");
+
+        // the API port does not serve the actuator
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
 }
@@ -0,0 +1,153 @@
+package com.reactivespring.cache;
+
+import com.reactivespring.client.MoviesInfoRestClient;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieInfoCacheTest {
+
+    MoviesInfoRestClient moviesInfoRestClient = mock(MoviesInfoRestClient.class);
+
+    @SuppressWarnings("unchecked")
+    ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+
+    private final MovieInfo movieInfo = new MovieInfo("1", "Batman Begins", 2005,
+            List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+
+    private MovieInfoCache movieInfoCache(boolean negativeCaching) {
+        return new MovieInfoCache(moviesInfoRestClient, meterRegistry, true, 100, 0,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), negativeCaching, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void retrieveMovieInfo_concurrentMissesShareOneUpstreamCall() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .thenReturn(Mono.just(movieInfo).delayElement(Duration.ofMillis(100)));
+        var movieInfoCache = movieInfoCache(true);
+
+        // when
+        var movieInfos = Flux.merge(
+                movieInfoCache.retrieveMovieInfo("1"),
+                movieInfoCache.retrieveMovieInfo("1"),
+                movieInfoCache.retrieveMovieInfo("1"));
+
+        // then
+        StepVerifier.create(movieInfos)
+                .expectNext(movieInfo, movieInfo, movieInfo)
+                .verifyComplete();
+        StepVerifier.create(movieInfoCache.retrieveMovieInfo("1"))
+                .expectNext(movieInfo)
+                .verifyComplete();
+
+        verify(moviesInfoRestClient, times(1)).retrieveMovieInfo("1");
+        assertEquals(1, movieInfoCache.stats().missCount());
+        assertEquals(3, movieInfoCache.stats().hitCount());
+    }
+
+    @Test
+    void retrieveMovieInfo_loadsOnSubscriptionOnly() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("1")).thenReturn(Mono.just(movieInfo));
+        var movieInfoCache = movieInfoCache(true);
+
+        // when
+        var movieInfoMono = movieInfoCache.retrieveMovieInfo("1");
+
+        // then
+        verify(moviesInfoRestClient, times(0)).retrieveMovieInfo("1");
+        assertEquals(0, movieInfoCache.stats().requestCount());
+        StepVerifier.create(movieInfoMono)
+                .expectNext(movieInfo)
+                .verifyComplete();
+        StepVerifier.create(movieInfoMono)
+                .expectNext(movieInfo)
+                .verifyComplete();
+        assertEquals(1, movieInfoCache.stats().missCount());
+        assertEquals(1, movieInfoCache.stats().hitCount());
+    }
+
+    @Test
+    void retrieveMovieInfo_cancelledCallerDoesNotCancelSharedLoad() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .thenReturn(Mono.just(movieInfo).delayElement(Duration.ofMillis(100)));
+        var movieInfoCache = movieInfoCache(true);
+
+        // when
+        movieInfoCache.retrieveMovieInfo("1").subscribe().dispose();
+
+        // then
+        StepVerifier.create(movieInfoCache.retrieveMovieInfo("1"))
+                .expectNext(movieInfo)
+                .verifyComplete();
+        verify(moviesInfoRestClient, times(1)).retrieveMovieInfo("1");
+    }
+
+    @Test
+    void retrieveMovieInfo_notFoundIsCachedWhenNegativeCachingEnabled() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("abc"))
+                .thenReturn(Mono.error(new MoviesInfoClientException("There is no MovieInfo Available for the passed in Id : abc", 404)));
+        var movieInfoCache = movieInfoCache(true);
+
+        // when & then
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieInfoCache.retrieveMovieInfo("abc"))
+                    .expectErrorMatches(ex -> ex instanceof MoviesInfoClientException
+                            && ((MoviesInfoClientException) ex).getStatusCode() == 404)
+                    .verify();
+        }
+        verify(moviesInfoRestClient, times(1)).retrieveMovieInfo("abc");
+    }
+
+    @Test
+    void retrieveMovieInfo_notFoundIsNotCachedWhenNegativeCachingDisabled() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("abc"))
+                .thenReturn(Mono.error(new MoviesInfoClientException("There is no MovieInfo Available for the passed in Id : abc", 404)));
+        var movieInfoCache = movieInfoCache(false);
+
+        // when & then
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieInfoCache.retrieveMovieInfo("abc"))
+                    .expectError(MoviesInfoClientException.class)
+                    .verify();
+        }
+        verify(moviesInfoRestClient, times(2)).retrieveMovieInfo("abc");
+    }
+
+    @Test
+    void retrieveMovieInfo_serverErrorsAreNeverCached() {
+        // given
+        when(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .thenReturn(Mono.error(new MoviesInfoServerException("Server Exception in MoviesInfoService")))
+                .thenReturn(Mono.just(movieInfo));
+        var movieInfoCache = movieInfoCache(true);
+
+        // when & then
+        StepVerifier.create(movieInfoCache.retrieveMovieInfo("1"))
+                .expectError(MoviesInfoServerException.class)
+                .verify();
+        StepVerifier.create(movieInfoCache.retrieveMovieInfo("1"))
+                .expectNext(movieInfo)
+                .verifyComplete();
+    }
+}
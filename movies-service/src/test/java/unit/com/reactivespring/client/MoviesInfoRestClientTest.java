@@ -0,0 +1,152 @@
+package com.reactivespring.client;
+
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoviesInfoRestClientTest {
+
+    private static final String MOVIE_INFO_JSON = "{\"movieInfoId\":\"1\",\"name\":\"Batman Begins\",\"year\":2005,"
+            + "\"cast\":[\"Christian Bale\",\"Michael Cane\"],\"release_date\":\"2005-06-15\"}";
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .ignoreExceptions(MoviesInfoClientException.class)
+            .build());
+
+    private final UpstreamRetry noRetry = new UpstreamRetry(false, 2, Duration.ofMillis(10), Duration.ofMillis(50),
+            0.5, Duration.ofSeconds(3), 0.1, 10);
+
+    private MoviesInfoRestClient moviesInfoRestClient(boolean hedgingEnabled, IntFunction<Mono<ClientResponse>> responses) {
+        return moviesInfoRestClient(noRetry, hedgingEnabled, responses);
+    }
+
+    private MoviesInfoRestClient moviesInfoRestClient(UpstreamRetry upstreamRetry, boolean hedgingEnabled,
+                                                      IntFunction<Mono<ClientResponse>> responses) {
+        ExchangeFunction exchangeFunction = request -> responses.apply(calls.incrementAndGet());
+        var client = new MoviesInfoRestClient(WebClient.builder().exchangeFunction(exchangeFunction).build(),
+                upstreamRetry, circuitBreakerRegistry, BulkheadRegistry.ofDefaults(),
+                hedgingEnabled, Duration.ofMillis(50), Duration.ofMillis(100));
+        ReflectionTestUtils.setField(client, "moviesInfoUrl", "http://localhost:8080/v1/movieinfos");
+        ReflectionTestUtils.setField(client, "timeout", Duration.ofSeconds(10));
+        return client;
+    }
+
+    private static Mono<ClientResponse> respond(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    @Test
+    void retrieveMovieInfo_circuitOpensAfterRepeated5xx() {
+        // given
+        var moviesInfoRestClient = moviesInfoRestClient(false,
+                call -> respond(HttpStatus.INTERNAL_SERVER_ERROR, "MovieInfo Service Unavailable"));
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+        }
+
+        // then
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .expectErrorMessage("MoviesInfoService circuit breaker is open")
+                .verify();
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void retrieveMovieInfo_404DoesNotOpenCircuit() {
+        // given
+        var moviesInfoRestClient = moviesInfoRestClient(false, call -> respond(HttpStatus.NOT_FOUND, ""));
+
+        // when & then
+        for (int i = 0; i < 6; i++) {
+            StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("abc"))
+                    .expectError(MoviesInfoClientException.class)
+                    .verify();
+        }
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    void retrieveMovieInfo_4xxWithoutBodyIsAnError() {
+        // given
+        var moviesInfoRestClient = moviesInfoRestClient(false, call -> respond(HttpStatus.BAD_REQUEST, ""));
+
+        // when & then
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .expectErrorMatches(ex -> ex instanceof MoviesInfoClientException
+                        && ((MoviesInfoClientException) ex).getStatusCode() == 400)
+                .verify();
+    }
+
+    @Test
+    void retrieveMovieInfo_slowCallIsHedged() {
+        // given
+        var moviesInfoRestClient = moviesInfoRestClient(true, call -> call == 1
+                ? respond(HttpStatus.OK, MOVIE_INFO_JSON).delayElement(Duration.ofSeconds(5))
+                : respond(HttpStatus.OK, MOVIE_INFO_JSON));
+
+        // when
+        var start = System.nanoTime();
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .expectNextMatches(movieInfo -> "Batman Begins".equals(movieInfo.getName()))
+                .verifyComplete();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then : only the hedge answered, the cancelled primary does not feed the latency estimate
+        assertEquals(2, calls.get());
+        assertTrue(elapsed.toMillis() < 3000, "hedge should have answered, took " + elapsed.toMillis() + "ms");
+        assertEquals(1, latencyEstimator(moviesInfoRestClient).recordedCount());
+    }
+
+    @Test
+    void retrieveMovieInfo_onlyAnsweredCallsAreTimed() {
+        // given
+        var moviesInfoRestClient = moviesInfoRestClient(true, call -> call == 1
+                ? respond(HttpStatus.INTERNAL_SERVER_ERROR, "MovieInfo Service Unavailable")
+                : respond(HttpStatus.OK, MOVIE_INFO_JSON).delayElement(Duration.ofSeconds(5)));
+
+        // when
+        StepVerifier.create(moviesInfoRestClient.retrieveMovieInfo("1"))
+                .expectError(MoviesInfoServerException.class)
+                .verify();
+        moviesInfoRestClient.retrieveMovieInfo("1").subscribe().dispose();
+
+        // then
+        assertEquals(0, latencyEstimator(moviesInfoRestClient).recordedCount());
+    }
+
+    private static LatencyPercentileEstimator latencyEstimator(MoviesInfoRestClient moviesInfoRestClient) {
+        return (LatencyPercentileEstimator) ReflectionTestUtils.getField(moviesInfoRestClient, "latencyEstimator");
+    }
+}
@@ -0,0 +1,92 @@
+package com.reactivespring.client;
+
+import com.reactivespring.domain.MovieReviews;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewsServerException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReviewsBatchLoaderTest {
+
+    ReviewsRestClient reviewsRestClient = mock(ReviewsRestClient.class);
+
+    ReviewsBatchLoader reviewsBatchLoader = new ReviewsBatchLoader(reviewsRestClient, true,
+            Duration.ofMillis(50), 100, 4);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load_coalescesConcurrentLoads() {
+        // given
+        when(reviewsRestClient.retrieveReviewsBatch(any())).thenReturn(Flux.just(
+                new MovieReviews(1L, List.of(new Review("1", 1L, "Awesome Movie", 9.0))),
+                new MovieReviews(2L, List.of(new Review("2", 2L, "Excellent Movie", 8.0)))));
+
+        // when
+        var loads = Mono.zip(
+                reviewsBatchLoader.load("1"),
+                reviewsBatchLoader.load("2"),
+                reviewsBatchLoader.load("1"),
+                reviewsBatchLoader.load("3"));
+
+        // then
+        StepVerifier.create(loads)
+                .assertNext(results -> {
+                    assertEquals("1", results.getT1().get(0).getReviewId());
+                    assertEquals("2", results.getT2().get(0).getReviewId());
+                    assertEquals("1", results.getT3().get(0).getReviewId());
+                    assertEquals(List.of(), results.getT4());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<Long>> movieInfoIds = ArgumentCaptor.forClass(Collection.class);
+        verify(reviewsRestClient, times(1)).retrieveReviewsBatch(movieInfoIds.capture());
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(movieInfoIds.getValue()));
+    }
+
+    @Test
+    void load_propagatesBatchFailureToEveryCaller() {
+        // given
+        when(reviewsRestClient.retrieveReviewsBatch(any()))
+                .thenReturn(Flux.error(new ReviewsServerException("Server Exception in ReviewsService")));
+
+        // when
+        var errors = Flux.merge(
+                reviewsBatchLoader.load("1").then(Mono.<Class<?>>empty()).onErrorResume(ex -> Mono.just(ex.getClass())),
+                reviewsBatchLoader.load("2").then(Mono.<Class<?>>empty()).onErrorResume(ex -> Mono.just(ex.getClass())));
+
+        // then
+        StepVerifier.create(errors)
+                .expectNext(ReviewsServerException.class, ReviewsServerException.class)
+                .verifyComplete();
+    }
+
+    @Test
+    void load_nonNumericIdUsesSingleCall() {
+        // given
+        when(reviewsRestClient.retrieveReviews("abc")).thenReturn(Flux.empty());
+
+        // when
+        var reviews = reviewsBatchLoader.load("abc");
+
+        // then
+        StepVerifier.create(reviews)
+                .expectNext(List.of())
+                .verifyComplete();
+        verify(reviewsRestClient, times(0)).retrieveReviewsBatch(any());
+    }
+}
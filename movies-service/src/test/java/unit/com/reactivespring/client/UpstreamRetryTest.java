@@ -0,0 +1,114 @@
+package com.reactivespring.client;
+
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.ReviewsClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpstreamRetryTest {
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private UpstreamRetry upstreamRetry(long maxAttempts, int budgetMaxTokens) {
+        return new UpstreamRetry(true, maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50),
+                0.5, Duration.ofSeconds(3), 0.1, budgetMaxTokens);
+    }
+
+    private <T> Mono<T> failingThenSucceeding(int failures, T value) {
+        return Mono.defer(() -> subscriptions.incrementAndGet() <= failures
+                ? Mono.error(new MoviesInfoServerException("Server Exception in MoviesInfoService"))
+                : Mono.just(value));
+    }
+
+    @Test
+    void retry_serverExceptionIsRetried() {
+        // given
+        var upstreamRetry = upstreamRetry(2, 10);
+
+        // when & then
+        StepVerifier.create(upstreamRetry.retry(failingThenSucceeding(2, "movieInfo")))
+                .expectNext("movieInfo")
+                .verifyComplete();
+        assertEquals(3, subscriptions.get());
+    }
+
+    @Test
+    void retry_exhaustedRetriesSurfaceUpstreamFailure() {
+        // given
+        var upstreamRetry = upstreamRetry(2, 10);
+
+        // when & then
+        StepVerifier.create(upstreamRetry.retry(failingThenSucceeding(5, "movieInfo")))
+                .expectError(MoviesInfoServerException.class)
+                .verify();
+        assertEquals(3, subscriptions.get());
+    }
+
+    @Test
+    void retry_clientExceptionsAreNeverRetried() {
+        // given
+        var upstreamRetry = upstreamRetry(2, 10);
+        var movieInfo = Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.error(new MoviesInfoClientException("There is no MovieInfo Available for the passed in Id : abc", 404));
+        });
+        var reviews = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Flux.error(new ReviewsClientException("Invalid movieInfoId"));
+        });
+
+        // when & then
+        StepVerifier.create(upstreamRetry.retry(movieInfo))
+                .expectError(MoviesInfoClientException.class)
+                .verify();
+        StepVerifier.create(upstreamRetry.retry(reviews))
+                .expectError(ReviewsClientException.class)
+                .verify();
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void retry_globalBudgetLimitsRetries() {
+        // given
+        var upstreamRetry = upstreamRetry(1, 2);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(upstreamRetry.retry(Mono.defer(() -> {
+                        subscriptions.incrementAndGet();
+                        return Mono.error(new MoviesInfoServerException("Server Exception in MoviesInfoService"));
+                    })))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+        }
+
+        // then : 5 calls, plus the 2 retries the bucket held (the 5 deposits of 0.1 add up to less than one more)
+        assertEquals(7, subscriptions.get());
+    }
+
+    @Test
+    void retry_fluxIsNotRetriedAfterEmitting() {
+        // given
+        var upstreamRetry = upstreamRetry(2, 10);
+        var reviews = Flux.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Flux.just("review1").concatWith(Flux.error(new ReviewsServerException("ReviewsService did not respond within 2000ms")));
+        });
+
+        // when & then
+        StepVerifier.create(upstreamRetry.retry(reviews))
+                .expectNext("review1")
+                .expectError(ReviewsServerException.class)
+                .verify();
+        assertEquals(1, subscriptions.get());
+    }
+}
@@ -0,0 +1,102 @@
+package com.reactivespring.config;
+
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecConfigTest {
+
+    private static final ResolvableType MOVIE = ResolvableType.forClass(Movie.class);
+
+    private final ServerCodecConfigurer codecs = codecs();
+
+    private static ServerCodecConfigurer codecs() {
+        var codecs = ServerCodecConfigurer.create();
+        new CodecConfig().smileCodecCustomizer(Jackson2ObjectMapperBuilder.json()).customize(codecs);
+        return codecs;
+    }
+
+    // one Movie with a list of reviews, the shape MovieCodecBenchmark measures
+    private static Movie movie(int reviews) {
+        var movieInfo = new MovieInfo("5f8d0d55b54764421b7156c9", "Batman Begins", 2005,
+                List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+        var reviewList = IntStream.range(0, reviews)
+                .mapToObj(i -> new Review(String.format("%024x", i), 1L,
+                        "Review " + i + ", an excellent movie with a great cast", (double) (i % 11)))
+                .collect(Collectors.toList());
+        return new Movie(movieInfo, reviewList);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] encode(Movie movie, MediaType mediaType) {
+        var encoder = (Encoder<Movie>) codecs.getWriters().stream()
+                .filter(writer -> writer.canWrite(MOVIE, mediaType))
+                .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .findFirst()
+                .orElseThrow();
+        var buffer = encoder.encodeValue(movie, new DefaultDataBufferFactory(), MOVIE, mediaType, Map.of());
+        var bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Movie decode(byte[] bytes, MediaType mediaType) {
+        var decoder = (Decoder<Movie>) codecs.getReaders().stream()
+                .filter(reader -> reader.canRead(MOVIE, mediaType))
+                .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .findFirst()
+                .orElseThrow();
+        Mono<DataBuffer> body = Mono.just(new DefaultDataBufferFactory().wrap(bytes));
+        return decoder.decodeToMono(body, MOVIE, mediaType, Map.of()).block();
+    }
+
+    @Test
+    void smile_roundTripsAMovie() {
+        // given
+        var movie = movie(20);
+
+        // when
+        var decoded = decode(encode(movie, CodecConfig.APPLICATION_SMILE), CodecConfig.APPLICATION_SMILE);
+
+        // then
+        assertEquals(movie, decoded);
+    }
+
+    @Test
+    void smile_isSmallerThanJsonAndTheGapGrowsWithTheReviews() {
+        // when
+        var json2 = encode(movie(2), MediaType.APPLICATION_JSON).length;
+        var smile2 = encode(movie(2), CodecConfig.APPLICATION_SMILE).length;
+        var json200 = encode(movie(200), MediaType.APPLICATION_JSON).length;
+        var smile200 = encode(movie(200), CodecConfig.APPLICATION_SMILE).length;
+
+        // then : field names are written once per document, the review values are the same in both
+        assertTrue(smile2 < json2, "smile " + smile2 + " json " + json2);
+        assertTrue(smile200 < json200 * 0.8, "smile " + smile200 + " json " + json200);
+        assertTrue((double) smile200 / json200 < (double) smile2 / json2);
+    }
+}
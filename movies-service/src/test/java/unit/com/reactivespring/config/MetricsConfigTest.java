@@ -0,0 +1,35 @@
+package com.reactivespring.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsConfigTest {
+
+    @Test
+    void uriTag() {
+        assertEquals("/v1/movies/{id}", MetricsConfig.uriTag("/v1/movies/61a7c0e2f1b2c3d4e5f60718"));
+        assertEquals("/v1/movies/{id}", MetricsConfig.uriTag("/v1/movies/batman-begins?fields=name"));
+    }
+
+    @Test
+    void uriTag_unknownPathsShareOneTag() {
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/wp-login.php"));
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/v1/movies"));
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/v1/movies//"));
+        assertEquals(MetricsConfig.UNMATCHED, MetricsConfig.uriTag("/v1/movies/1/reviews"));
+    }
+
+    @Test
+    void upstreamUriTag() {
+        var upstreamUriTag = MetricsConfig.upstreamUriTag("http://localhost:8080/v1/movieinfos",
+                "http://localhost:8081/v1/reviews");
+
+        assertEquals("/v1/movieinfos/{id}", upstreamUriTag.apply("/v1/movieinfos/61a7c0e2f1b2c3d4e5f60718"));
+        assertEquals("/v1/movieinfos/{id}", upstreamUriTag.apply("http://localhost:8080/v1/movieinfos/batman-begins"));
+        assertEquals("/v1/reviews", upstreamUriTag.apply("/v1/reviews?movieInfoId=1"));
+        assertEquals("/v1/reviews/batch", upstreamUriTag.apply("/v1/reviews/batch"));
+        assertEquals(MetricsConfig.UNMATCHED, upstreamUriTag.apply("/v1/reviews/stream/42?overflow=LATEST"));
+        assertEquals(MetricsConfig.UNMATCHED, upstreamUriTag.apply("/v1/movies/1"));
+    }
+}
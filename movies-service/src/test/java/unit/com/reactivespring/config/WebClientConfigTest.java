@@ -0,0 +1,126 @@
+package com.reactivespring.config;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebClientConfigTest {
+
+    // long enough for the server to compress it
+    private static final String MOVIE_INFO = "{\"movieInfoId\":\"1\",\"name\":\"Batman Begins\",\"year\":2005,"
+            + "\"cast\":[\"Christian Bale\",\"Michael Cane\"],\"release_date\":\"2005-06-15\"}";
+
+    private final List<String> protocols = new CopyOnWriteArrayList<>();
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+
+    // an upstream like movies-info-service: HTTP/1.1 and h2c on one port, gzip when the client accepts it
+    private final DisposableServer upstream = HttpServer.create()
+            .port(0)
+            .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+            .compress(true)
+            .route(routes -> routes.get("/v1/movieinfos/1", (request, response) -> {
+                // an HTTP/2 stream reaches the handler as an HTTP/1.1 request that carries its stream id
+                protocols.add(request.requestHeaders().contains("x-http2-stream-id") ? "h2c" : request.version().text());
+                clientPorts.add(request.remoteAddress().getPort());
+                acceptEncodings.add(String.valueOf(request.requestHeaders().get(HttpHeaders.ACCEPT_ENCODING)));
+                return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(MOVIE_INFO));
+            }))
+            .bindNow();
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            // "1s" to Duration, as in the application
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(WebClientConfig.class)
+            .withBean(WebClient.Builder.class, WebClient::builder)
+            .withPropertyValues(
+                    "restClient.moviesInfoUrl=http://localhost:" + upstream.port() + "/v1/movieinfos",
+                    "restClient.reviewsUrl=http://localhost:" + upstream.port() + "/v1/reviews",
+                    "restClient.binaryCodec.enabled=false");
+
+    @AfterEach
+    void tearDown() {
+        upstream.disposeNow();
+    }
+
+    private String retrieve(WebClient webClient) {
+        return webClient.get()
+                .uri("http://localhost:" + upstream.port() + "/v1/movieinfos/1")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    @Test
+    void webClient_http11ByDefault() {
+        contextRunner.run(context -> {
+            // when
+            var body = retrieve(context.getBean(WebClient.class));
+
+            // then
+            assertEquals(MOVIE_INFO, body);
+            assertEquals(List.of("HTTP/1.1"), protocols);
+        });
+    }
+
+    @Test
+    void webClient_h2cAndGzipWhenEnabled() {
+        contextRunner.withPropertyValues("restClient.http2.enabled=true", "restClient.compression.enabled=true")
+                .run(context -> {
+                    // when
+                    var webClient = context.getBean(WebClient.class);
+                    var first = retrieve(webClient);
+                    var second = retrieve(webClient);
+
+                    // then : both calls were streams on one connection, the gzipped responses came back inflated
+                    assertEquals(MOVIE_INFO, first);
+                    assertEquals(MOVIE_INFO, second);
+                    assertEquals(List.of("h2c", "h2c"), protocols);
+                    assertEquals(clientPorts.get(0), clientPorts.get(1));
+                    assertEquals(List.of("gzip", "gzip"), acceptEncodings);
+                });
+    }
+
+    @Test
+    void webClient_tagsUpstreamCallsWithTheirRoute() {
+        // given : Reactor Netty records into the global registry
+        var meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            contextRunner.run(context -> {
+                // when
+                retrieve(context.getBean(WebClient.class));
+
+                // then : the per-request meters, the connection ones carry the scheme as uri
+                var uris = meterRegistry.getMeters().stream()
+                        .filter(meter -> meter.getId().getName().startsWith("reactor.netty.http.client"))
+                        .filter(meter -> meter.getId().getTag("method") != null)
+                        .map(meter -> meter.getId().getTag("uri"))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+                assertEquals(Set.of("/v1/movieinfos/{id}"), uris);
+            });
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+}
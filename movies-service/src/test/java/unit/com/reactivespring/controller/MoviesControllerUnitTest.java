@@ -1,4 +1,121 @@
 package com.reactivespring.controller;
 
+import com.reactivespring.cache.MovieInfoCache;
+import com.reactivespring.client.ReviewsBatchLoader;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.ReviewsServerException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = MoviesController.class)
+@AutoConfigureWebTestClient
 public class MoviesControllerUnitTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    MovieInfoCache movieInfoCache;
+
+    @MockBean
+    ReviewsBatchLoader reviewsBatchLoader;
+
+    private final MovieInfo movieInfo = new MovieInfo("1", "Batman Begins", 2005,
+            List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+
+    @Test
+    void retrieveMovieById() {
+        // given
+        when(movieInfoCache.retrieveMovieInfo(anyString())).thenReturn(Mono.just(movieInfo));
+        when(reviewsBatchLoader.load(anyString())).thenReturn(Mono.just(List.of(
+                new Review("1", 1L, "Awesome Movie", 9.0),
+                new Review("2", 1L, "Excellent Movie", 8.0))));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", "1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(2, movie.getReviewList().size());
+                });
+    }
+
+    @Test
+    void retrieveMovieById_callsUpstreamsInParallel() {
+        // given
+        when(movieInfoCache.retrieveMovieInfo(anyString()))
+                .thenReturn(Mono.just(movieInfo).delayElement(Duration.ofMillis(500)));
+        when(reviewsBatchLoader.load(anyString()))
+                .thenReturn(Mono.just(List.of(new Review("1", 1L, "Awesome Movie", 9.0))).delayElement(Duration.ofMillis(500)));
+
+        // when
+        var start = System.nanoTime();
+        webTestClient.get().uri("/v1/movies/{id}", "1")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertTrue(elapsed.toMillis() < 900, "expected max of the upstream latencies, took " + elapsed.toMillis() + "ms");
+    }
+
+    @Test
+    void retrieveMovieById_404() {
+        // given
+        when(movieInfoCache.retrieveMovieInfo(anyString()))
+                .thenReturn(Mono.error(new MoviesInfoClientException("There is no MovieInfo Available for the passed in Id : abc", 404)));
+        when(reviewsBatchLoader.load(anyString())).thenReturn(Mono.just(List.of()));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", "abc")
+                .exchange()
+                .expectStatus()
+                .isNotFound()
+                .expectBody(String.class)
+                .isEqualTo("There is no MovieInfo Available for the passed in Id : abc");
+    }
+
+    @Test
+    void retrieveMovieById_reviews5xx_degraded() {
+        // given
+        when(movieInfoCache.retrieveMovieInfo(anyString())).thenReturn(Mono.just(movieInfo));
+        when(reviewsBatchLoader.load(anyString()))
+                .thenReturn(Mono.error(new ReviewsServerException("Server Exception in ReviewsService Review Service Unavailable")));
+
+        // when & then
+        webTestClient.get().uri("/v1/movies/{id}", "1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Movie.class)
+                .consumeWith(movieEntityExchangeResult -> {
+                    var movie = movieEntityExchangeResult.getResponseBody();
+                    assert movie != null;
+                    assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                    assertEquals(0, movie.getReviewList().size());
+                });
+    }
 }
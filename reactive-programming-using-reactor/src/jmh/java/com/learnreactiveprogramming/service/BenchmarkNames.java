@@ -0,0 +1,25 @@
+package com.learnreactiveprogramming.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The FluxAndMonoGeneratorService pipelines run over five fixed names and log every signal, which says
+ * nothing about operator cost. The benchmarks rebuild the same chains over a synthetic list of `count`
+ * names with the same lengths, so the element count is the only thing that changes between runs.
+ */
+final class BenchmarkNames {
+
+    private static final List<String> NAMES = List.of("John", "Alice", "Bob", "Charlie", "David");
+
+    private BenchmarkNames() {
+    }
+
+    static List<String> names(int count) {
+        var names = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(NAMES.get(i % NAMES.size()));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,50 @@
+package com.learnreactiveprogramming.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/*
+ * namesFluxMerge, namesFluxMergeSequential and namesFluxWithConcat without the delayElements: two
+ * sources of elements / 2 names each, combined three ways.
+ */
+@State(Scope.Benchmark)
+public class CombineBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int elements;
+
+    private List<String> abcNames;
+    private List<String> defNames;
+
+    @Setup
+    public void setUp() {
+        var names = BenchmarkNames.names(elements);
+        abcNames = names.subList(0, elements / 2);
+        defNames = names.subList(elements / 2, elements);
+    }
+
+    @Benchmark
+    public void merge(Blackhole blackhole) {
+        Flux.merge(Flux.fromIterable(abcNames), Flux.fromIterable(defNames))
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void mergeSequential(Blackhole blackhole) {
+        Flux.mergeSequential(Flux.fromIterable(abcNames), Flux.fromIterable(defNames))
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void concat(Blackhole blackhole) {
+        Flux.concat(Flux.fromIterable(abcNames), Flux.fromIterable(defNames))
+                .subscribe(blackhole::consume);
+    }
+}
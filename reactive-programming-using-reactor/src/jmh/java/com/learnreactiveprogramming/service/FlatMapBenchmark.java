@@ -0,0 +1,58 @@
+package com.learnreactiveprogramming.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/*
+ * namesFluxWithFlatMap and its ordered siblings: every name is upper cased, filtered and split into
+ * its characters. All inner publishers are synchronous, so the difference is the bookkeeping of each
+ * operator (inner subscribers, queues, reordering), not latency.
+ */
+@State(Scope.Benchmark)
+public class FlatMapBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int elements;
+
+    private final FluxAndMonoGeneratorService service = new FluxAndMonoGeneratorService();
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        names = BenchmarkNames.names(elements);
+    }
+
+    private Flux<String> upperCaseNames() {
+        return Flux.fromIterable(names)
+                .map(String::toUpperCase)
+                .filter(name -> name.length() > 3);
+    }
+
+    @Benchmark
+    public void flatMap(Blackhole blackhole) {
+        upperCaseNames()
+                .flatMap(service::splitString)
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void concatMap(Blackhole blackhole) {
+        upperCaseNames()
+                .concatMap(service::splitString)
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void flatMapSequential(Blackhole blackhole) {
+        upperCaseNames()
+                .flatMapSequential(service::splitString)
+                .subscribe(blackhole::consume);
+    }
+}
@@ -0,0 +1,81 @@
+package com.learnreactiveprogramming.service;
+
+import com.learnreactiveprogramming.operator.Characters;
+import com.learnreactiveprogramming.operator.ParallelStage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/*
+ * The namesFluxParallel stage over a large synthetic names dataset, from 1 rail up to the core count,
+ * against the same work done on the subscribing thread. Each name also burns `cpuTokens` of Blackhole
+ * CPU time, standing in for a transformation heavier than upper casing. batchSize 1 shows what a
+ * hand-off per element costs.
+ */
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+
+    @Param({"1000000"})
+    int elements;
+
+    @Param({"1", "2", "4", "8"})
+    int rails;
+
+    @Param({"1", "256"})
+    int batchSize;
+
+    @Param({"false", "true"})
+    boolean ordered;
+
+    @Param({"100"})
+    int cpuTokens;
+
+    private List<String> names;
+    private Scheduler scheduler;
+    private ParallelStage stage;
+
+    @Setup
+    public void setUp() {
+        names = BenchmarkNames.names(elements);
+        scheduler = Schedulers.newParallel("benchmark-rails", rails);
+        var railStage = ParallelStage.of(rails, batchSize).on(scheduler);
+        stage = ordered ? railStage.ordered() : railStage;
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    // the per name work of namesFluxParallel, plus the CPU burn
+    private List<String> split(String name) {
+        Blackhole.consumeCPU(cpuTokens);
+        var upperCase = name.toUpperCase();
+        return upperCase.length() > 3 ? Characters.asList(upperCase) : List.of();
+    }
+
+    @Benchmark
+    public Long sequential() {
+        return Flux.fromIterable(names)
+                .concatMapIterable(this::split)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long parallel() {
+        return Flux.fromIterable(names)
+                .transform(stage.<String, String>flatMapIterable(this::split))
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,57 @@
+package com.learnreactiveprogramming.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/*
+ * Splitting one name of `elements` characters: String.split("") against a generator that walks the
+ * characters and against Characters.split, which is what splitString uses now. Run with the gc profiler,
+ * the split("") version pays for the regex, the array and a String per character up front, whatever
+ * the subscriber ends up requesting.
+ */
+@State(Scope.Benchmark)
+public class SplitStringBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int elements;
+
+    private final FluxAndMonoGeneratorService service = new FluxAndMonoGeneratorService();
+    private String name;
+
+    @Setup
+    public void setUp() {
+        name = String.join("", BenchmarkNames.names(elements)).substring(0, elements);
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        Flux.fromArray(name.split(""))
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void charGenerator(Blackhole blackhole) {
+        Flux.range(0, name.length())
+                .map(index -> String.valueOf(name.charAt(index)))
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void characters(Blackhole blackhole) {
+        service.splitString(name)
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void charactersFused(Blackhole blackhole) {
+        service.splitString(name)
+                .filter(character -> character.charAt(0) != ' ')
+                .map(String::trim)
+                .subscribe(blackhole::consume);
+    }
+}
@@ -0,0 +1,53 @@
+package com.learnreactiveprogramming.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/*
+ * namesFluxWithTransform against the same chain written inline. transform is applied once at assembly
+ * time, so any difference should only show at the small element counts.
+ */
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int elements;
+
+    private final FluxAndMonoGeneratorService service = new FluxAndMonoGeneratorService();
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        names = BenchmarkNames.names(elements);
+    }
+
+    @Benchmark
+    public void transform(Blackhole blackhole) {
+        UnaryOperator<Flux<String>> filterMap = name -> name.map(String::toUpperCase)
+                .filter(s -> s.length() > 3);
+
+        Flux.fromIterable(names)
+                .transform(filterMap)
+                .flatMap(service::splitString)
+                .defaultIfEmpty("default")
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    public void inline(Blackhole blackhole) {
+        Flux.fromIterable(names)
+                .map(String::toUpperCase)
+                .filter(s -> s.length() > 3)
+                .flatMap(service::splitString)
+                .defaultIfEmpty("default")
+                .subscribe(blackhole::consume);
+    }
+}
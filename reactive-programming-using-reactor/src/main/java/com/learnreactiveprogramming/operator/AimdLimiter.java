@@ -0,0 +1,132 @@
+package com.learnreactiveprogramming.operator;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Concurrency limit that moves like a TCP congestion window: every inner that completes within the
+ * latency target adds 1/limit, so the limit grows by about one per round of inners; an inner that is
+ * slower than the target, or fails, multiplies the limit by backoffRatio, at most once per latency
+ * target so that one slow round is not punished once per inner.
+ * Permits are handed out in arrival order; a cancelled inner gives its permit back without moving the
+ * limit.
+ */
+final class AimdLimiter {
+
+    enum Outcome {
+        SUCCESS, ERROR, CANCEL
+    }
+
+    static final class Permit {
+
+        private final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    AimdLimiter(int minLimit, int maxLimit, double backoffRatio, Duration latencyTarget) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= max : " + minLimit + ", " + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1) : " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.limit = minLimit;
+        this.lastDecrease = System.nanoTime() - latencyTargetNanos;
+    }
+
+    Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            var waiter = new Waiter(sink);
+            Permit permit = null;
+            synchronized (this) {
+                if (waiting.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    permit = new Permit();
+                } else {
+                    waiting.add(waiter);
+                }
+            }
+            if (permit != null) {
+                sink.success(permit);
+                return;
+            }
+            sink.onCancel(() -> {
+                Permit granted;
+                synchronized (this) {
+                    if (waiting.remove(waiter)) {
+                        return;
+                    }
+                    granted = waiter.permit;
+                }
+                // granted while being cancelled : the sink drops the permit, so give it back here
+                if (granted != null) {
+                    release(granted, Outcome.CANCEL);
+                }
+            });
+        });
+    }
+
+    void release(Permit permit, Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+
+        var now = System.nanoTime();
+        var granted = new ArrayList<Waiter>();
+        synchronized (this) {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS && now - permit.grantedAt <= latencyTargetNanos) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else if (outcome != Outcome.CANCEL && now - lastDecrease >= latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = now;
+            }
+
+            while (!waiting.isEmpty() && inFlight < (int) limit) {
+                var waiter = waiting.poll();
+                waiter.permit = new Permit();
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+        granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
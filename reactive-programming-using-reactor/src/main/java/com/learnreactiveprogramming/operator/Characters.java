@@ -0,0 +1,66 @@
+package com.learnreactiveprogramming.operator;
+
+import reactor.core.publisher.Flux;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+ * Splits text into one String per char without String.split(""): no regex, no intermediate array, and
+ * the single character Strings of the ASCII range come from a table, so splitting ASCII text allocates
+ * nothing per character. Like split(""), a surrogate pair comes out as two elements. Unlike split(""),
+ * an empty sequence gives no element at all instead of one empty String.
+ */
+public final class Characters {
+
+    private static final String[] ASCII = new String[128];
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            ASCII[c] = String.valueOf(c);
+        }
+    }
+
+    private Characters() {
+    }
+
+    public static String of(char c) {
+        return c < ASCII.length ? ASCII[c] : String.valueOf(c);
+    }
+
+    /*
+     * Emits the characters lazily, only as many as requested, and supports synchronous fusion so that
+     * map and filter downstream pull straight from the sequence instead of going through a queue.
+     * The sequence is read while the Flux is consumed, so it must not change in the meantime.
+     */
+    public static Flux<String> split(CharSequence chars) {
+        return FluxCharacters.create(chars);
+    }
+
+    /*
+     * Read only List view of the characters, for the places that need the whole split at once.
+     */
+    public static List<String> asList(CharSequence chars) {
+        return new CharacterList(chars);
+    }
+
+    private static final class CharacterList extends AbstractList<String> implements RandomAccess {
+
+        private final CharSequence chars;
+
+        CharacterList(CharSequence chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public String get(int index) {
+            return of(chars.charAt(index));
+        }
+
+        @Override
+        public int size() {
+            return chars.length();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.learnreactiveprogramming.operator;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/*
+ * flatMap with explicit concurrency and prefetch, to be used with transform:
+ *
+ *   names.transform(FanOut.fixed(4, 1).flatMap(this::splitStringWithDelay))
+ *
+ * The defaults of flatMap (256 inners, 32 prefetch) suit neither CPU bound inners, which gain nothing
+ * past the core count, nor remote calls, which should not open 256 requests at once. An adaptive
+ * FanOut keeps up to maxConcurrency inners subscribed but only lets an AIMD limit of them run, and
+ * moves that limit with the latency the inners show. The limit belongs to the FanOut, not to one
+ * subscription, so every pipeline sharing a FanOut also shares the limit towards the same upstream.
+ */
+public final class FanOut {
+
+    private final int concurrency;
+    private final int prefetch;
+    private final AimdLimiter limiter;
+
+    private FanOut(int concurrency, int prefetch, AimdLimiter limiter) {
+        if (concurrency < 1 || prefetch < 1) {
+            throw new IllegalArgumentException("concurrency and prefetch must be positive : " + concurrency + ", " + prefetch);
+        }
+        this.concurrency = concurrency;
+        this.prefetch = prefetch;
+        this.limiter = limiter;
+    }
+
+    public static FanOut defaults() {
+        return fixed(Queues.SMALL_BUFFER_SIZE, Queues.XS_BUFFER_SIZE);
+    }
+
+    public static FanOut fixed(int concurrency, int prefetch) {
+        return new FanOut(concurrency, prefetch, null);
+    }
+
+    /*
+     * Starts at minConcurrency, grows while inners complete within latencyTarget and halves when they
+     * do not.
+     */
+    public static FanOut adaptive(int minConcurrency, int maxConcurrency, int prefetch, Duration latencyTarget) {
+        return adaptive(minConcurrency, maxConcurrency, prefetch, latencyTarget, 0.5);
+    }
+
+    public static FanOut adaptive(int minConcurrency, int maxConcurrency, int prefetch, Duration latencyTarget,
+                                  double backoffRatio) {
+        return new FanOut(maxConcurrency, prefetch,
+                new AimdLimiter(minConcurrency, maxConcurrency, backoffRatio, latencyTarget));
+    }
+
+    /*
+     * Inners run concurrently and their elements interleave.
+     */
+    public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flux -> flux.flatMap(element -> limited(mapper.apply(element)), concurrency, prefetch);
+    }
+
+    /*
+     * Inners run concurrently, but their elements come out in the order of the source elements.
+     */
+    public <T, R> Function<Flux<T>, Flux<R>> flatMapSequential(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flux -> flux.flatMapSequential(element -> limited(mapper.apply(element)), concurrency, prefetch);
+    }
+
+    /*
+     * Concurrency currently allowed, the fixed concurrency if not adaptive.
+     */
+    public int currentConcurrency() {
+        return limiter == null ? concurrency : limiter.limit();
+    }
+
+    private <R> Flux<R> limited(Publisher<? extends R> inner) {
+        if (limiter == null) {
+            return Flux.from(inner);
+        }
+        return Flux.usingWhen(limiter.acquire(),
+                permit -> Flux.<R>from(inner),
+                permit -> release(permit, AimdLimiter.Outcome.SUCCESS),
+                (permit, error) -> release(permit, AimdLimiter.Outcome.ERROR),
+                permit -> release(permit, AimdLimiter.Outcome.CANCEL));
+    }
+
+    private Flux<Void> release(AimdLimiter.Permit permit, AimdLimiter.Outcome outcome) {
+        return Flux.defer(() -> {
+            limiter.release(permit, outcome);
+            return Flux.empty();
+        });
+    }
+
+    AimdLimiter limiter() {
+        return limiter;
+    }
+}
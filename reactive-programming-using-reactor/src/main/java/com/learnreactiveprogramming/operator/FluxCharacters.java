@@ -0,0 +1,182 @@
+package com.learnreactiveprogramming.operator;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/*
+ * Source behind Characters.split, modelled on reactor's own FluxArray: an unbounded request takes the
+ * fast path of a plain loop, a bounded one is served request by request, and a fusing downstream
+ * polls the characters itself.
+ */
+final class FluxCharacters extends Flux<String> implements Fuseable, Scannable {
+
+    private final CharSequence chars;
+
+    private FluxCharacters(CharSequence chars) {
+        this.chars = Objects.requireNonNull(chars, "chars");
+    }
+
+    static Flux<String> create(CharSequence chars) {
+        return onAssembly(new FluxCharacters(chars));
+    }
+
+    @Override
+    public void subscribe(CoreSubscriber<? super String> actual) {
+        if (chars.length() == 0) {
+            Operators.complete(actual);
+            return;
+        }
+        actual.onSubscribe(new CharactersSubscription(actual, chars));
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        if (key == Attr.BUFFERED) {
+            return chars.length();
+        }
+        if (key == Attr.RUN_STYLE) {
+            return Attr.RunStyle.SYNC;
+        }
+        return null;
+    }
+
+    static final class CharactersSubscription implements QueueSubscription<String>, Scannable {
+
+        private static final AtomicLongFieldUpdater<CharactersSubscription> REQUESTED =
+                AtomicLongFieldUpdater.newUpdater(CharactersSubscription.class, "requested");
+
+        private final CoreSubscriber<? super String> actual;
+        private final CharSequence chars;
+        private final int length;
+
+        private int index;
+        private volatile boolean cancelled;
+        private volatile long requested;
+
+        CharactersSubscription(CoreSubscriber<? super String> actual, CharSequence chars) {
+            this.actual = actual;
+            this.chars = chars;
+            this.length = chars.length();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n) && Operators.addCap(REQUESTED, this, n) == 0) {
+                if (n == Long.MAX_VALUE) {
+                    fastPath();
+                } else {
+                    slowPath(n);
+                }
+            }
+        }
+
+        private void fastPath() {
+            for (int i = index; i != length; i++) {
+                if (cancelled) {
+                    return;
+                }
+                actual.onNext(Characters.of(chars.charAt(i)));
+            }
+            if (!cancelled) {
+                actual.onComplete();
+            }
+        }
+
+        private void slowPath(long n) {
+            var i = index;
+            var emitted = 0L;
+
+            for (; ; ) {
+                while (i != length && emitted != n) {
+                    if (cancelled) {
+                        return;
+                    }
+                    actual.onNext(Characters.of(chars.charAt(i)));
+                    i++;
+                    emitted++;
+                }
+
+                if (i == length) {
+                    if (!cancelled) {
+                        actual.onComplete();
+                    }
+                    return;
+                }
+
+                n = requested;
+                if (n == emitted) {
+                    index = i;
+                    n = REQUESTED.addAndGet(this, -emitted);
+                    if (n == 0) {
+                        return;
+                    }
+                    emitted = 0L;
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return (requestedMode & SYNC) != 0 ? SYNC : NONE;
+        }
+
+        @Override
+        public String poll() {
+            var i = index;
+            if (i == length) {
+                return null;
+            }
+            index = i + 1;
+            return Characters.of(chars.charAt(i));
+        }
+
+        @Override
+        public int size() {
+            return length - index;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return index == length;
+        }
+
+        @Override
+        public void clear() {
+            index = length;
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.ACTUAL) {
+                return actual;
+            }
+            if (key == Attr.CANCELLED) {
+                return cancelled;
+            }
+            if (key == Attr.TERMINATED) {
+                return isEmpty();
+            }
+            if (key == Attr.BUFFERED) {
+                return size();
+            }
+            if (key == Attr.REQUESTED_FROM_DOWNSTREAM) {
+                return requested;
+            }
+            if (key == Attr.RUN_STYLE) {
+                return Attr.RunStyle.SYNC;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.learnreactiveprogramming.operator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/*
+ * Simulated latency for any Flux or Mono, replacing Random + delayElements.
+ * Latencies come from a Distribution (fixed, uniform or log-normal) and are drawn either from a seeded
+ * SplittableRandom, so that a scenario replays exactly, or from ThreadLocalRandom, which nothing
+ * contends on. The delays run on the parallel scheduler by default; that scheduler is looked up per
+ * subscription, so under StepVerifier.withVirtualTime they run on the VirtualTimeScheduler and seconds
+ * of simulated latency take milliseconds of wall time.
+ */
+public final class LatencyInjector {
+
+    /*
+     * Maps uniform doubles in [0, 1) to a latency.
+     */
+    @FunctionalInterface
+    public interface Distribution {
+
+        Duration sample(DoubleSupplier uniform);
+    }
+
+    // the 0.99 quantile of the standard normal distribution
+    private static final double Z_99 = 2.3263478740408408;
+
+    private final Distribution distribution;
+    private final SplittableRandom seeded;
+    private final Supplier<Scheduler> scheduler;
+
+    private LatencyInjector(Distribution distribution, SplittableRandom seeded, Supplier<Scheduler> scheduler) {
+        this.distribution = Objects.requireNonNull(distribution, "distribution");
+        this.seeded = seeded;
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+    }
+
+    /*
+     * Repeatable: the same seed gives the same latencies, in the order they are drawn.
+     */
+    public static LatencyInjector seeded(long seed, Distribution distribution) {
+        return new LatencyInjector(distribution, new SplittableRandom(seed), Schedulers::parallel);
+    }
+
+    public static LatencyInjector unseeded(Distribution distribution) {
+        return new LatencyInjector(distribution, null, Schedulers::parallel);
+    }
+
+    public LatencyInjector on(Scheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler");
+        return new LatencyInjector(distribution, seeded, () -> scheduler);
+    }
+
+    public static Distribution fixed(Duration latency) {
+        return uniform -> latency;
+    }
+
+    public static Distribution uniform(Duration min, Duration max) {
+        var minNanos = min.toNanos();
+        var rangeNanos = max.toNanos() - minNanos;
+        if (rangeNanos < 0) {
+            throw new IllegalArgumentException("max must not be less than min : " + min + " > " + max);
+        }
+        return uniform -> Duration.ofNanos(minNanos + (long) (uniform.getAsDouble() * rangeNanos));
+    }
+
+    /*
+     * Long tailed latency, the usual shape of a remote call: half of the samples are below median and
+     * 1% are above p99.
+     */
+    public static Distribution logNormal(Duration median, Duration p99) {
+        if (p99.compareTo(median) <= 0) {
+            throw new IllegalArgumentException("p99 must be greater than median : " + p99 + " <= " + median);
+        }
+        var mu = Math.log(median.toNanos());
+        var sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        return uniform -> Duration.ofNanos((long) Math.exp(mu + sigma * standardNormal(uniform)));
+    }
+
+    // Box-Muller, SplittableRandom has no nextGaussian on Java 11
+    private static double standardNormal(DoubleSupplier uniform) {
+        var u1 = 1.0 - uniform.getAsDouble(); // (0, 1], keeps log away from 0
+        var u2 = uniform.getAsDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    public Duration nextLatency() {
+        if (seeded == null) {
+            return distribution.sample(() -> ThreadLocalRandom.current().nextDouble());
+        }
+        synchronized (seeded) {
+            return distribution.sample(seeded::nextDouble);
+        }
+    }
+
+    /*
+     * Like delayElements: one latency is drawn per subscription and every element waits for it.
+     */
+    public <T> Flux<T> delayElements(Flux<T> source) {
+        return Flux.defer(() -> source.delayElements(nextLatency(), scheduler.get()));
+    }
+
+    /*
+     * Every element waits for a latency of its own, order is kept.
+     */
+    public <T> Flux<T> delayEachElement(Flux<T> source) {
+        return Flux.defer(() -> {
+            var timer = scheduler.get();
+            return source.delayUntil(element -> Mono.delay(nextLatency(), timer));
+        });
+    }
+
+    public <T> Mono<T> delay(Mono<T> source) {
+        return Mono.defer(() -> source.delayElement(nextLatency(), scheduler.get()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.learnreactiveprogramming.operator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.ParallelFlux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * CPU bound stage spread over `rails` with parallel()/runOn(), to be used with transform:
+ *
+ *   names.transform(ParallelStage.of(4, 256).flatMapIterable(this::split))
+ *
+ * Handing one element to another thread costs far more than upper casing or splitting a name, so the
+ * elements are grouped into batches of batchSize before the rails, and each rail processes a whole
+ * batch per hand-off. The output of a batch stays together, and ordered() merges the rails back into
+ * the source order by batch index; without it batches come out as rails finish them.
+ */
+public final class ParallelStage {
+
+    private final int rails;
+    private final int batchSize;
+    private final boolean ordered;
+    private final Scheduler scheduler;
+
+    private ParallelStage(int rails, int batchSize, boolean ordered, Scheduler scheduler) {
+        if (rails < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("rails and batchSize must be positive : " + rails + ", " + batchSize);
+        }
+        this.rails = rails;
+        this.batchSize = batchSize;
+        this.ordered = ordered;
+        this.scheduler = scheduler;
+    }
+
+    /*
+     * Runs on the shared parallel scheduler, which has one worker per core.
+     */
+    public static ParallelStage of(int rails, int batchSize) {
+        return new ParallelStage(rails, batchSize, false, Schedulers.parallel());
+    }
+
+    public ParallelStage ordered() {
+        return new ParallelStage(rails, batchSize, true, scheduler);
+    }
+
+    public ParallelStage on(Scheduler scheduler) {
+        return new ParallelStage(rails, batchSize, ordered, scheduler);
+    }
+
+    public <T, R> Function<Flux<T>, Flux<R>> map(Function<? super T, ? extends R> mapper) {
+        return flatMapIterable(element -> List.of(mapper.apply(element)));
+    }
+
+    public <T, R> Function<Flux<T>, Flux<R>> flatMapIterable(Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        return flux -> {
+            ParallelFlux<Tuple2<Long, List<R>>> processed = flux.buffer(batchSize)
+                    .index()
+                    // one batch per request, a rail should not hoard batches the others could take
+                    .parallel(rails, 1)
+                    .runOn(scheduler, 1)
+                    .map(batch -> batch.mapT2(elements -> process(elements, mapper)));
+
+            var batches = ordered
+                    ? processed.ordered(Comparator.comparing(Tuple2::getT1), 1)
+                    : processed.sequential(1);
+            return batches.concatMapIterable(Tuple2::getT2);
+        };
+    }
+
+    private static <T, R> List<R> process(List<T> batch, Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        var results = new ArrayList<R>(batch.size());
+        for (var element : batch) {
+            for (R result : mapper.apply(element)) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    public int rails() {
+        return rails;
+    }
+}
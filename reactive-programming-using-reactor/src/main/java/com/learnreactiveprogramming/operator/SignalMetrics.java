@@ -0,0 +1,175 @@
+package com.learnreactiveprogramming.operator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * Replacement for .log() on hot paths. .log() formats and writes a line for every request and onNext;
+ * here every signal only bumps a Micrometer meter, and a signal is logged with probability sampleRate
+ * (0 never, 1 always, like .log()). Errors are always logged.
+ *
+ * Meters, tagged with the sequence name:
+ *   reactor.signals        counter per signal type : onNext, onComplete, onError, cancel
+ *   reactor.requested      distribution of the request(n) sizes
+ *   reactor.first.element  timer from subscribe to the first onNext
+ *   reactor.last.element   timer from subscribe to the last onNext, on completion
+ */
+public final class SignalMetrics {
+
+    private static final Logger log = Loggers.getLogger(SignalMetrics.class);
+
+    private final MeterRegistry registry;
+    private final double sampleRate;
+
+    public SignalMetrics(MeterRegistry registry, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be in [0, 1] : " + sampleRate);
+        }
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+    }
+
+    // flux() and mono() register the meters of the sequence: call them once and keep the operator
+    public <T> Function<Flux<T>, Flux<T>> flux(String sequence) {
+        var meters = new Meters(sequence);
+        return flux -> Flux.defer(() -> {
+            var subscription = new SubscriptionTimes();
+            return flux.doOnSubscribe(s -> subscription.subscribed(meters))
+                    .doOnRequest(n -> meters.requested(n))
+                    .doOnNext(element -> meters.next(subscription, element))
+                    .doOnComplete(() -> meters.complete(subscription))
+                    .doOnError(meters::error)
+                    .doOnCancel(meters::cancel);
+        });
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> mono(String sequence) {
+        var meters = new Meters(sequence);
+        return mono -> Mono.defer(() -> {
+            var subscription = new SubscriptionTimes();
+            return mono.doOnSubscribe(s -> subscription.subscribed(meters))
+                    .doOnRequest(n -> meters.requested(n))
+                    .doOnNext(element -> meters.next(subscription, element))
+                    .doOnSuccess(element -> meters.complete(subscription))
+                    .doOnError(meters::error)
+                    .doOnCancel(meters::cancel);
+        });
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static final class SubscriptionTimes {
+
+        private long subscribedAt;
+        private long lastNextAt;
+        private boolean first = true;
+
+        void subscribed(Meters meters) {
+            subscribedAt = System.nanoTime();
+            meters.subscribed();
+        }
+    }
+
+    private final class Meters {
+
+        private final String sequence;
+        private final Counter onNext;
+        private final Counter onComplete;
+        private final Counter onError;
+        private final Counter cancel;
+        private final DistributionSummary requested;
+        private final Timer firstElement;
+        private final Timer lastElement;
+
+        Meters(String sequence) {
+            this.sequence = sequence;
+            this.onNext = signals("onNext");
+            this.onComplete = signals("onComplete");
+            this.onError = signals("onError");
+            this.cancel = signals("cancel");
+            this.requested = DistributionSummary.builder("reactor.requested")
+                    .description("request(n) sizes")
+                    .tag("sequence", sequence)
+                    .register(registry);
+            this.firstElement = Timer.builder("reactor.first.element")
+                    .description("Time from subscribe to the first onNext")
+                    .tag("sequence", sequence)
+                    .register(registry);
+            this.lastElement = Timer.builder("reactor.last.element")
+                    .description("Time from subscribe to the last onNext of a completed sequence")
+                    .tag("sequence", sequence)
+                    .register(registry);
+        }
+
+        private Counter signals(String type) {
+            return Counter.builder("reactor.signals")
+                    .description("Signals seen")
+                    .tag("sequence", sequence)
+                    .tag("type", type)
+                    .register(registry);
+        }
+
+        void subscribed() {
+            if (sampled()) {
+                log.info("{} | onSubscribe", sequence);
+            }
+        }
+
+        void requested(long n) {
+            // unbounded demand would swamp the distribution
+            if (n != Long.MAX_VALUE) {
+                requested.record(n);
+            }
+            if (sampled()) {
+                log.info("{} | request({})", sequence, n == Long.MAX_VALUE ? "unbounded" : n);
+            }
+        }
+
+        void next(SubscriptionTimes subscription, Object element) {
+            onNext.increment();
+            var now = System.nanoTime();
+            if (subscription.first) {
+                subscription.first = false;
+                firstElement.record(now - subscription.subscribedAt, TimeUnit.NANOSECONDS);
+            }
+            subscription.lastNextAt = now;
+            if (sampled()) {
+                log.info("{} | onNext({})", sequence, element);
+            }
+        }
+
+        void complete(SubscriptionTimes subscription) {
+            onComplete.increment();
+            if (!subscription.first) {
+                lastElement.record(subscription.lastNextAt - subscription.subscribedAt, TimeUnit.NANOSECONDS);
+            }
+            if (sampled()) {
+                log.info("{} | onComplete()", sequence);
+            }
+        }
+
+        void error(Throwable error) {
+            onError.increment();
+            log.error(sequence + " | onError(" + error + ")", error);
+        }
+
+        void cancel() {
+            cancel.increment();
+            if (sampled()) {
+                log.info("{} | cancel()", sequence);
+            }
+        }
+    }
+}
@@ -1,23 +1,82 @@
 package com.learnreactiveprogramming.service;
 
+import com.learnreactiveprogramming.operator.Characters;
+import com.learnreactiveprogramming.operator.FanOut;
+import com.learnreactiveprogramming.operator.LatencyInjector;
+import com.learnreactiveprogramming.operator.ParallelStage;
+import com.learnreactiveprogramming.operator.SignalMetrics;
+import io.micrometer.core.instrument.Metrics;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.Random;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
 
 public class FluxAndMonoGeneratorService {
 
     private static final List<String> names = List.of("John", "Alice", "Bob", "Charlie", "David");
-    private static final Random RANDOM      = new Random();
+
+    private final LatencyInjector latency;
+    private final Function<Flux<String>, Flux<String>> namesFluxSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithMapSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithFilterSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithFlatMapSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithTransformSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithTransformSwitchIfEmptySignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithConcatSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxConcatWithSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxConcatWithMonoSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxMergeSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxMergeWithSignals;
+    private final Function<Flux<String>, Flux<String>> namesMonoMergeWithSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxMergeSequentialSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithFlatMapAsyncSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithFlatMapSequentialAsyncSignals;
+    private final Function<Flux<String>, Flux<String>> namesFluxWithConcatMapAsyncSignals;
+    private final Function<Mono<List<String>>, Mono<List<String>>> namesMonoFlatMapSignals;
+
+    public FluxAndMonoGeneratorService() {
+        this(LatencyInjector.unseeded(LatencyInjector.uniform(Duration.ZERO, Duration.ofMillis(1000))));
+    }
+
+    /*
+     * A seeded LatencyInjector makes the *WithDelay / *Async pipelines repeatable, and lets tests drive
+     * them on virtual time.
+     */
+    public FluxAndMonoGeneratorService(LatencyInjector latency) {
+        this(latency, new SignalMetrics(Metrics.globalRegistry, 0.01));
+    }
+
+    /*
+     * Every pipeline reports its signals to signals instead of logging each one of them. The operators,
+     * and the meters behind them, are built once here rather than on every call.
+     */
+    public FluxAndMonoGeneratorService(LatencyInjector latency, SignalMetrics signals) {
+        this.latency = latency;
+        this.namesFluxSignals = signals.flux("namesFlux");
+        this.namesFluxWithMapSignals = signals.flux("namesFluxWithMap");
+        this.namesFluxWithFilterSignals = signals.flux("namesFluxWithFilter");
+        this.namesFluxWithFlatMapSignals = signals.flux("namesFluxWithFlatMap");
+        this.namesFluxWithTransformSignals = signals.flux("namesFluxWithTransform");
+        this.namesFluxWithTransformSwitchIfEmptySignals = signals.flux("namesFluxWithTransformSwitchIfEmpty");
+        this.namesFluxWithConcatSignals = signals.flux("namesFluxWithConcat");
+        this.namesFluxConcatWithSignals = signals.flux("namesFluxConcatWith");
+        this.namesFluxConcatWithMonoSignals = signals.flux("namesFluxConcatWithMono");
+        this.namesFluxMergeSignals = signals.flux("namesFluxMerge");
+        this.namesFluxMergeWithSignals = signals.flux("namesFluxMergeWith");
+        this.namesMonoMergeWithSignals = signals.flux("namesMonoMergeWith");
+        this.namesFluxMergeSequentialSignals = signals.flux("namesFluxMergeSequential");
+        this.namesFluxWithFlatMapAsyncSignals = signals.flux("namesFluxWithFlatMapAsync");
+        this.namesFluxWithFlatMapSequentialAsyncSignals = signals.flux("namesFluxWithFlatMapSequentialAsync");
+        this.namesFluxWithConcatMapAsyncSignals = signals.flux("namesFluxWithConcatMapAsync");
+        this.namesMonoFlatMapSignals = signals.mono("namesMono_flatMap");
+    }
 
     public Flux<String> namesFlux() {
         return Flux.fromIterable(names)
-                .log();
+                .transform(namesFluxSignals);
     }
 
     public Mono<String> nameMono() {
@@ -29,20 +88,18 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > stringLength)
                 .flatMap(this::splitStringMono)
-                .log(); // Mono<List of A, L, E, X>
+                .transform(namesMonoFlatMapSignals); // Mono<List of A, L, E, X>
     }
 
     private Mono<List<String>> splitStringMono(String s) {
-        var charList = s.chars()
-                .mapToObj(Character::toString) // convert each char code to a String
-                .collect(Collectors.toList());
+        var charList = Characters.asList(s); // list view over the chars, no copy
         return Mono.just(charList);
     }
 
     public Flux<String> namesFluxWithMap() {
         return namesFlux()
                .map(String::toUpperCase)
-                .log();
+                .transform(namesFluxWithMapSignals);
     }
 
     public Flux<String> namesFluxImmutability() {
@@ -58,7 +115,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > stringLength)
                 .map(name -> name.length() + "-" + name)
-                .log();
+                .transform(namesFluxWithFilterSignals);
     }
 
     public Flux<String> namesFluxWithFlatMap(int stringLength) {
@@ -66,7 +123,34 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > stringLength)
                 .flatMap(this::splitString)
-                .log();
+                .transform(namesFluxWithFlatMapSignals);
+    }
+
+    /*
+     * Same pipeline with the flatMap concurrency and prefetch taken from fanOut.
+     */
+    public Flux<String> namesFluxWithFlatMap(int stringLength, FanOut fanOut) {
+        return namesFlux()
+                .map(String::toUpperCase)
+                .filter(name -> name.length() > stringLength)
+                .transform(fanOut.<String, String>flatMap(this::splitString))
+                .transform(namesFluxWithFlatMapSignals);
+    }
+
+    /*
+     * namesFluxWithFlatMap spread over the rails of stage, so upper casing, filtering and splitting use
+     * more than the subscribing thread.
+     */
+    public Flux<String> namesFluxParallel(int stringLength, ParallelStage stage) {
+        return namesFluxParallel(names, stringLength, stage);
+    }
+
+    public Flux<String> namesFluxParallel(Iterable<String> names, int stringLength, ParallelStage stage) {
+        return Flux.fromIterable(names)
+                .transform(stage.<String, String>flatMapIterable(name -> {
+                    var upperCase = name.toUpperCase();
+                    return upperCase.length() > stringLength ? Characters.asList(upperCase) : List.of();
+                }));
     }
 
     /*
@@ -82,7 +166,7 @@ public class FluxAndMonoGeneratorService {
                 .transform(filterMap)
                 .flatMap(this::splitString)
                 .defaultIfEmpty("default")
-                .log();
+                .transform(namesFluxWithTransformSignals);
     }
 
     public Flux<String> namesFluxWithTransformSwitchIfEmpty(int stringLength) {
@@ -98,7 +182,7 @@ public class FluxAndMonoGeneratorService {
         return namesFlux()
                 .transform(filterMap)
                 .switchIfEmpty(defaultFlux)
-                .log();
+                .transform(namesFluxWithTransformSwitchIfEmptySignals);
     }
 
     /*
@@ -109,21 +193,21 @@ public class FluxAndMonoGeneratorService {
         var abcFlux = Flux.just("A", "B", "C");
         var defFlux = Flux.just("D", "E", "F");
 
-        return Flux.concat(abcFlux, defFlux).log();
+        return Flux.concat(abcFlux, defFlux).transform(namesFluxWithConcatSignals);
     }
 
     public Flux<String> namesFluxConcatWith() {
         var abcFlux = Flux.just("A", "B", "C");
         var defFlux = Flux.just("D", "E", "F");
 
-        return abcFlux.concatWith(defFlux).log();
+        return abcFlux.concatWith(defFlux).transform(namesFluxConcatWithSignals);
     }
 
     public Flux<String> namesFluxConcatWithMono() {
         var aMono = Mono.just("A");
         var bMono = Mono.just("B");
 
-        return aMono.concatWith(bMono).log(); // A, B
+        return aMono.concatWith(bMono).transform(namesFluxConcatWithMonoSignals); // A, B
     }
 
     /*
@@ -136,7 +220,7 @@ public class FluxAndMonoGeneratorService {
         var defFlux = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return Flux.merge(abcFlux, defFlux).log();
+        return Flux.merge(abcFlux, defFlux).transform(namesFluxMergeSignals);
     }
 
     public Flux<String> namesFluxMergeWith() {
@@ -146,14 +230,14 @@ public class FluxAndMonoGeneratorService {
         var defFlux = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return abcFlux.mergeWith(defFlux).log();
+        return abcFlux.mergeWith(defFlux).transform(namesFluxMergeWithSignals);
     }
 
     public Flux<String> namesMonoMergeWith() {
         var aMono = Mono.just("A");
         var bMono = Mono.just("B");
 
-        return aMono.mergeWith(bMono).log(); // A, B
+        return aMono.mergeWith(bMono).transform(namesMonoMergeWithSignals); // A, B
     }
 
     /*
@@ -168,7 +252,7 @@ public class FluxAndMonoGeneratorService {
         var defFlux = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return Flux.mergeSequential(abcFlux, defFlux).log();
+        return Flux.mergeSequential(abcFlux, defFlux).transform(namesFluxMergeSequentialSignals);
     }
 
     /*
@@ -181,7 +265,31 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > stringLength)
                 .flatMap(this::splitStringWithDelay)
-                .log();
+                .transform(namesFluxWithFlatMapAsyncSignals);
+    }
+
+    /*
+     * An adaptive fanOut keeps the number of concurrent splitStringWithDelay calls where their latency
+     * stays within its target.
+     */
+    public Flux<String> namesFluxWithFlatMapAsync(int stringLength, FanOut fanOut) {
+        return namesFlux()
+                .map(String::toUpperCase)
+                .filter(name -> name.length() > stringLength)
+                .transform(fanOut.<String, String>flatMap(this::splitStringWithDelay))
+                .transform(namesFluxWithFlatMapAsyncSignals);
+    }
+
+    /*
+     * Runs the calls concurrently like the version above, but emits in the order of the names, like
+     * concatMap.
+     */
+    public Flux<String> namesFluxWithFlatMapSequentialAsync(int stringLength, FanOut fanOut) {
+        return namesFlux()
+                .map(String::toUpperCase)
+                .filter(name -> name.length() > stringLength)
+                .transform(fanOut.<String, String>flatMapSequential(this::splitStringWithDelay))
+                .transform(namesFluxWithFlatMapSequentialAsyncSignals);
     }
 
     /*
@@ -193,19 +301,16 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > stringLength)
                 .concatMap(this::splitStringWithDelay)
-                .log();
+                .transform(namesFluxWithConcatMapAsyncSignals);
     }
 
     // ALEX -> A, L, E, X
     public Flux<String> splitString(String name) {
-        return Flux.fromArray(name.split(""));
+        return Characters.split(name);
     }
 
     public Flux<String> splitStringWithDelay(String name) {
-        var delay = RANDOM.nextInt(1000);
-
-        return Flux.fromArray(name.split(""))
-                .delayElements(Duration.ofMillis(delay));
+        return latency.delayElements(Characters.split(name));
     }
 
     public static void main(String[] args) {
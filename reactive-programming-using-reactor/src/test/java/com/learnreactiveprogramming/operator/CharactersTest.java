@@ -0,0 +1,82 @@
+package com.learnreactiveprogramming.operator;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Fuseable;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CharactersTest {
+
+    @Test
+    void split() {
+        // given
+
+        // when
+        var characters = Characters.split("ALEX");
+
+        // then
+        StepVerifier.create(characters)
+                .expectNext("A", "L", "E", "X")
+                .verifyComplete();
+    }
+
+    @Test
+    void split_emptySequence() {
+        StepVerifier.create(Characters.split(""))
+                .verifyComplete();
+    }
+
+    @Test
+    void split_emitsOnlyWhatIsRequested() {
+        // given
+        var characters = Characters.split(new StringBuilder("CHARLIE"));
+
+        // when & then
+        StepVerifier.create(characters, 2)
+                .expectNext("C", "H")
+                .thenRequest(3)
+                .expectNext("A", "R", "L")
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void split_synchronousFusion() {
+        // given
+        var characters = Characters.split("DAVID")
+                .map(String::toLowerCase)
+                .filter(s -> !s.equals("a"));
+
+        // when & then
+        StepVerifier.create(characters)
+                .expectFusion(Fuseable.SYNC)
+                .expectNext("d", "v", "i", "d")
+                .verifyComplete();
+    }
+
+    @Test
+    void split_matchesStringSplit() {
+        // given
+        var text = "Añbé 漢字 😀";
+
+        // when & then
+        StepVerifier.create(Characters.split(text).collectList())
+                .expectNext(List.of(text.split("")))
+                .verifyComplete();
+    }
+
+    @Test
+    void of_asciiIsCached() {
+        assertSame(Characters.of('A'), Characters.of('A'));
+        assertEquals("é", Characters.of('é'));
+    }
+
+    @Test
+    void asList() {
+        assertEquals(List.of("B", "O", "B"), Characters.asList("BOB"));
+    }
+}
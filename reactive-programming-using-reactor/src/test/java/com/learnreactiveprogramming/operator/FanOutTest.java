@@ -0,0 +1,143 @@
+package com.learnreactiveprogramming.operator;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private Mono<Integer> call(Integer value, Duration latency) {
+        return Mono.delay(latency)
+                .thenReturn(value)
+                .doOnSubscribe(subscription -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                // before the value goes downstream, which is where flatMap starts the next inner
+                .doOnSuccess(done -> running.decrementAndGet())
+                .doOnCancel(running::decrementAndGet);
+    }
+
+    // inners that completed just before the cancel may still be giving their permit back
+    private int awaitInFlight(FanOut fanOut, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && fanOut.limiter().inFlight() != expected; i++) {
+            Thread.sleep(10);
+        }
+        return fanOut.limiter().inFlight();
+    }
+
+    @Test
+    void fixed_limitsConcurrency() {
+        // given
+        var fanOut = FanOut.fixed(3, 1);
+
+        // when
+        var values = Flux.range(0, 20)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(5))));
+
+        // then
+        StepVerifier.create(values)
+                .expectNextCount(20)
+                .verifyComplete();
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    void flatMapSequential_keepsSourceOrder() {
+        // given
+        var fanOut = FanOut.adaptive(2, 8, 1, Duration.ofSeconds(1));
+
+        // when : later values complete first
+        var values = Flux.range(0, 10)
+                .transform(fanOut.<Integer, Integer>flatMapSequential(value -> call(value, Duration.ofMillis(50 - value * 5))));
+
+        // then
+        StepVerifier.create(values)
+                .expectNext(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)
+                .verifyComplete();
+        assertTrue(maxRunning.get() > 1);
+        assertEquals(0, fanOut.limiter().inFlight());
+    }
+
+    @Test
+    void adaptive_growsWhileWithinTarget() {
+        // given
+        var fanOut = FanOut.adaptive(1, 16, 1, Duration.ofSeconds(1));
+
+        // when
+        var values = Flux.range(0, 200)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(1))));
+
+        // then
+        StepVerifier.create(values)
+                .expectNextCount(200)
+                .verifyComplete();
+        assertTrue(fanOut.currentConcurrency() > 8, () -> "concurrency " + fanOut.currentConcurrency());
+        assertTrue(maxRunning.get() <= 16);
+    }
+
+    @Test
+    void adaptive_backsOffWhenSlowerThanTarget() {
+        // given
+        var fanOut = FanOut.adaptive(1, 16, 1, Duration.ofMillis(20));
+        Flux.range(0, 200)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(1))))
+                .blockLast();
+        var grown = fanOut.currentConcurrency();
+
+        // when
+        Flux.range(0, 4)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(50))))
+                .blockLast();
+
+        // then
+        assertTrue(fanOut.currentConcurrency() < grown,
+                () -> "concurrency " + fanOut.currentConcurrency() + " after " + grown);
+    }
+
+    @Test
+    void adaptive_errorsBackOffAndReleasePermits() {
+        // given
+        var fanOut = FanOut.adaptive(1, 16, 1, Duration.ofSeconds(1));
+        Flux.range(0, 100)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(1))))
+                .blockLast();
+        var grown = fanOut.currentConcurrency();
+
+        // when
+        var values = Flux.range(0, 4)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> Mono.<Integer>error(new IllegalStateException("upstream down"))));
+
+        // then
+        StepVerifier.create(values)
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertTrue(fanOut.currentConcurrency() < grown);
+        assertEquals(0, fanOut.limiter().inFlight());
+    }
+
+    @Test
+    void adaptive_cancelReleasesPermits() throws InterruptedException {
+        // given
+        var fanOut = FanOut.adaptive(2, 2, 1, Duration.ofSeconds(1));
+
+        // when : two inners run, the rest wait for a permit
+        var values = Flux.range(0, 10)
+                .transform(fanOut.<Integer, Integer>flatMap(value -> call(value, Duration.ofMillis(200))));
+
+        // then
+        StepVerifier.create(values)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+        assertEquals(0, awaitInFlight(fanOut, 0));
+        assertEquals(2, fanOut.currentConcurrency());
+    }
+}
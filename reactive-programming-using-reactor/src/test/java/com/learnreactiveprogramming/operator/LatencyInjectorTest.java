@@ -0,0 +1,92 @@
+package com.learnreactiveprogramming.operator;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyInjectorTest {
+
+    @Test
+    void seeded_isRepeatable() {
+        // given
+        var distribution = LatencyInjector.uniform(Duration.ZERO, Duration.ofSeconds(1));
+        var first = LatencyInjector.seeded(42, distribution);
+        var second = LatencyInjector.seeded(42, distribution);
+
+        // when
+        var firstLatencies = new ArrayList<Duration>();
+        var secondLatencies = new ArrayList<Duration>();
+        for (int i = 0; i < 100; i++) {
+            firstLatencies.add(first.nextLatency());
+            secondLatencies.add(second.nextLatency());
+        }
+
+        // then
+        assertEquals(firstLatencies, secondLatencies);
+        assertTrue(firstLatencies.stream().allMatch(latency -> latency.compareTo(Duration.ofSeconds(1)) < 0));
+    }
+
+    @Test
+    void logNormal_hitsMedianAndP99() {
+        // given
+        var latency = LatencyInjector.seeded(7,
+                LatencyInjector.logNormal(Duration.ofMillis(20), Duration.ofMillis(500)));
+
+        // when
+        var nanos = IntStream.range(0, 100_000)
+                .mapToLong(i -> latency.nextLatency().toNanos())
+                .toArray();
+        Arrays.sort(nanos);
+
+        // then
+        var median = nanos[nanos.length / 2] / 1_000_000.0;
+        var p99 = nanos[(int) (nanos.length * 0.99)] / 1_000_000.0;
+        assertEquals(20, median, 1);
+        assertEquals(500, p99, 40);
+    }
+
+    @Test
+    void logNormal_p99MustExceedMedian() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyInjector.logNormal(Duration.ofSeconds(1), Duration.ofMillis(10)));
+    }
+
+    @Test
+    void delayEachElement_virtualTime() {
+        // given
+        var latency = LatencyInjector.unseeded(LatencyInjector.fixed(Duration.ofSeconds(10)));
+
+        // when & then : 30 seconds of latency on virtual time
+        var wallTime = StepVerifier.withVirtualTime(() -> latency.delayEachElement(Flux.just("A", "B", "C")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(10))
+                .expectNext("A")
+                .thenAwait(Duration.ofSeconds(20))
+                .expectNext("B", "C")
+                .verifyComplete();
+        assertTrue(wallTime.compareTo(Duration.ofSeconds(5)) < 0, wallTime::toString);
+    }
+
+    @Test
+    void delay_mono() {
+        // given
+        var latency = LatencyInjector.seeded(1, LatencyInjector.fixed(Duration.ofMinutes(1)));
+
+        // when & then
+        StepVerifier.withVirtualTime(() -> latency.delay(Mono.just("alex")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMinutes(1))
+                .expectNext("alex")
+                .verifyComplete();
+    }
+}
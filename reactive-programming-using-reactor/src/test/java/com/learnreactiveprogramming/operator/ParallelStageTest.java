@@ -0,0 +1,79 @@
+package com.learnreactiveprogramming.operator;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelStageTest {
+
+    private final List<Integer> numbers = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+    @Test
+    void ordered_keepsSourceOrder() {
+        // given
+        var stage = ParallelStage.of(4, 64).ordered();
+
+        // when
+        var doubled = Flux.fromIterable(numbers)
+                .transform(stage.<Integer, Integer>map(number -> number * 2));
+
+        // then
+        StepVerifier.create(doubled.collectList())
+                .expectNext(numbers.stream().map(number -> number * 2).collect(Collectors.toList()))
+                .verifyComplete();
+    }
+
+    @Test
+    void unordered_emitsEveryElementOnce() {
+        // given
+        var stage = ParallelStage.of(4, 100);
+
+        // when
+        var doubled = Flux.fromIterable(numbers)
+                .transform(stage.<Integer, Integer>flatMapIterable(number -> List.of(number, -number)));
+
+        // then
+        StepVerifier.create(doubled.collectList())
+                .assertNext(results -> {
+                    assertEquals(20_000, results.size());
+                    assertEquals(20_000, Set.copyOf(results).size() + 1); // 0 and -0
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void batchesRunOnSeveralRails() {
+        // given
+        var scheduler = Schedulers.newParallel("rails", 4);
+        var stage = ParallelStage.of(4, 10).on(scheduler);
+        var threads = ConcurrentHashMap.<String>newKeySet();
+
+        // when
+        var names = Flux.fromIterable(numbers)
+                .transform(stage.<Integer, String>map(number -> {
+                    threads.add(Thread.currentThread().getName());
+                    return String.valueOf(number);
+                }));
+
+        // then
+        try {
+            StepVerifier.create(names)
+                    .expectNextCount(10_000)
+                    .verifyComplete();
+            assertTrue(threads.size() > 1, threads::toString);
+            assertTrue(threads.stream().allMatch(thread -> thread.startsWith("rails")), threads::toString);
+        } finally {
+            scheduler.dispose();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.learnreactiveprogramming.operator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SignalMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SignalMetrics signals = new SignalMetrics(registry, 0);
+
+    private double signalCount(String sequence, String type) {
+        return registry.get("reactor.signals").tag("sequence", sequence).tag("type", type).counter().count();
+    }
+
+    @Test
+    void flux_countsSignalsAndRequests() {
+        // given
+        var names = Flux.just("alex", "ben", "chloe")
+                .transform(signals.flux("names"));
+
+        // when & then
+        StepVerifier.create(names, 2)
+                .expectNext("alex", "ben")
+                .thenRequest(1)
+                .expectNext("chloe")
+                .verifyComplete();
+        assertEquals(3, signalCount("names", "onNext"));
+        assertEquals(1, signalCount("names", "onComplete"));
+        assertEquals(0, signalCount("names", "cancel"));
+
+        var requested = registry.get("reactor.requested").tag("sequence", "names").summary();
+        assertEquals(2, requested.count());
+        assertEquals(3, requested.totalAmount());
+        assertEquals(1, registry.get("reactor.first.element").tag("sequence", "names").timer().count());
+        assertEquals(1, registry.get("reactor.last.element").tag("sequence", "names").timer().count());
+    }
+
+    @Test
+    void flux_countsCancellationsAndErrors() {
+        // given
+        var numbers = Flux.range(1, 100)
+                .transform(signals.flux("numbers"));
+        var failing = Flux.<Integer>error(new IllegalStateException("boom"))
+                .transform(signals.flux("failing"));
+
+        // when & then
+        StepVerifier.create(numbers)
+                .expectNext(1, 2)
+                .thenCancel()
+                .verify();
+        StepVerifier.create(failing)
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertEquals(1, signalCount("numbers", "cancel"));
+        assertEquals(0, registry.get("reactor.last.element").tag("sequence", "numbers").timer().count());
+        assertEquals(1, signalCount("failing", "onError"));
+    }
+
+    @Test
+    void mono() {
+        // given
+        var mono = Mono.just("Hello, Reactor!")
+                .transform(signals.mono("hello"));
+
+        // when & then
+        StepVerifier.create(mono)
+                .expectNext("Hello, Reactor!")
+                .verifyComplete();
+        StepVerifier.create(mono)
+                .expectNext("Hello, Reactor!")
+                .verifyComplete();
+        assertEquals(2, signalCount("hello", "onNext"));
+        assertEquals(2, signalCount("hello", "onComplete"));
+        assertEquals(2, registry.get("reactor.first.element").tag("sequence", "hello").timer().count());
+    }
+
+    @Test
+    void sampleRateMustBeAProbability() {
+        assertThrows(IllegalArgumentException.class, () -> new SignalMetrics(registry, 1.5));
+    }
+}
@@ -1,11 +1,18 @@
 package com.learnreactiveprogramming.service;
 
+import com.learnreactiveprogramming.operator.FanOut;
+import com.learnreactiveprogramming.operator.LatencyInjector;
+import com.learnreactiveprogramming.operator.ParallelStage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class FluxAndMonoGeneratorServiceTest {
 
     FluxAndMonoGeneratorService service = new FluxAndMonoGeneratorService();
@@ -122,6 +129,75 @@ class FluxAndMonoGeneratorServiceTest {
                 .verifyComplete();
     }
 
+    /*
+     * Seeded latency on virtual time: the same seed gives the same interleaving, and the seconds of
+     * simulated latency do not cost wall time.
+     */
+    @Test
+    void namesFluxWithFlatMapAsync_seededLatency() {
+        // given
+        int stringLength = 4;
+        var latency = LatencyInjector.logNormal(Duration.ofMillis(200), Duration.ofSeconds(2));
+        var runs = new ArrayList<List<String>>();
+
+        // when
+        for (int run = 0; run < 2; run++) {
+            var seededService = new FluxAndMonoGeneratorService(LatencyInjector.seeded(42, latency));
+            StepVerifier.withVirtualTime(() -> seededService.namesFluxWithFlatMapAsync(stringLength).collectList())
+                    .thenAwait(Duration.ofHours(1))
+                    .consumeNextWith(runs::add)
+                    .verifyComplete();
+        }
+
+        // then
+        assertEquals(17, runs.get(0).size());
+        assertEquals(runs.get(0), runs.get(1));
+    }
+
+    @Test
+    void namesFluxWithConcatMapAsync_seededLatency() {
+        // given
+        int stringLength = 4;
+        var seededService = new FluxAndMonoGeneratorService(
+                LatencyInjector.seeded(42, LatencyInjector.fixed(Duration.ofSeconds(1))));
+
+        // when & then : 17 characters, one second each
+        StepVerifier.withVirtualTime(() -> seededService.namesFluxWithConcatMapAsync(stringLength))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(17))
+                .expectNext("A", "L", "I", "C", "E", "C", "H", "A", "R", "L", "I", "E", "D", "A", "V", "I", "D")
+                .verifyComplete();
+    }
+
+    @Test
+    void namesFluxWithFlatMapSequentialAsync() {
+        // given
+        int stringLength = 4;
+        var seededService = new FluxAndMonoGeneratorService(LatencyInjector.seeded(42,
+                LatencyInjector.uniform(Duration.ofMillis(100), Duration.ofSeconds(1))));
+        var fanOut = FanOut.adaptive(1, 4, 1, Duration.ofSeconds(1));
+
+        // when & then : concurrent calls, concatMap order
+        StepVerifier.withVirtualTime(() -> seededService.namesFluxWithFlatMapSequentialAsync(stringLength, fanOut))
+                .thenAwait(Duration.ofMinutes(1))
+                .expectNext("A", "L", "I", "C", "E", "C", "H", "A", "R", "L", "I", "E", "D", "A", "V", "I", "D")
+                .verifyComplete();
+    }
+
+    @Test
+    void namesFluxParallel() {
+        // given
+        int stringLength = 3;
+
+        // when
+        var namesFlux = service.namesFluxParallel(stringLength, ParallelStage.of(2, 1).ordered());
+
+        // then
+        StepVerifier.create(namesFlux)
+                .expectNext("J", "O", "H", "N", "A", "L", "I", "C", "E", "C", "H", "A", "R", "L", "I", "E", "D", "A", "V", "I", "D")
+                .verifyComplete();
+    }
+
     @Test
     void namesMono_flatMap() {
         // given